@@ -0,0 +1,44 @@
+package com.mlvisiotrack.benchmarks;
+
+import com.mlvisiotrack.dao.UserDAO;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password checks as done at login and password change. UserDAO hashes with
+ * BCrypt.gensalt(), whose cost is 10; add higher costs with -p cost=10,12 to
+ * see what raising it would do to the credential executor's throughput.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BCryptBenchmark {
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10"})
+    private int cost;
+
+    private UserDAO userDAO;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        userDAO = new UserDAO();
+        hash = BCrypt.hashpw(PASSWORD, BCrypt.gensalt(cost));
+    }
+
+    @Benchmark
+    public boolean verifyCorrectPassword() {
+        return userDAO.verifyPassword(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public boolean verifyWrongPassword() {
+        return userDAO.verifyPassword("wrong " + PASSWORD, hash);
+    }
+}
@@ -0,0 +1,80 @@
+package com.mlvisiotrack.benchmarks;
+
+import com.mlvisiotrack.models.AttendanceRecord;
+import com.mlvisiotrack.utils.JsonResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envelope serialization of attendance listings, buffered (sendSuccess, as
+ * used for pages) and streamed row by row (streamSuccess, as used for exports).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JsonResponseBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int records;
+
+    @Param({"false", "true"})
+    private boolean blackbird;
+
+    private List<AttendanceRecord> list;
+    private Stubs.CountingOutputStream out;
+    private HttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        Properties properties = new Properties();
+        properties.setProperty("json.blackbird.enabled", Boolean.toString(blackbird));
+        JsonResponse.configure(properties);
+
+        list = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            list.add(toRecord(Stubs.attendanceRow(i + 1)));
+        }
+
+        out = new Stubs.CountingOutputStream();
+        response = Stubs.discardingResponse(out);
+    }
+
+    @Benchmark
+    public long sendSuccess() throws Exception {
+        JsonResponse.sendSuccess(response, list);
+        return out.getCount();
+    }
+
+    @Benchmark
+    public long streamSuccess() throws Exception {
+        JsonResponse.streamSuccess(response, sink -> {
+            for (AttendanceRecord record : list) {
+                sink.write(record);
+            }
+        });
+        return out.getCount();
+    }
+
+    private static AttendanceRecord toRecord(Map<String, Object> row) {
+        AttendanceRecord record = new AttendanceRecord();
+        record.setId((Long) row.get("id"));
+        record.setStudentId((String) row.get("student_id"));
+        record.setDeviceId((String) row.get("device_id"));
+        record.setTimestamp(((Timestamp) row.get("timestamp")).toLocalDateTime());
+        record.setStudentName((String) row.get("student_name"));
+        record.setRegistrationNumber((String) row.get("registration_number"));
+        record.setDepartment((String) row.get("department"));
+        record.setStatus("Present");
+        return record;
+    }
+}
@@ -0,0 +1,64 @@
+package com.mlvisiotrack.benchmarks;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.JWTVerifier;
+import com.mlvisiotrack.utils.AuthTokenCache;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The two paths AuthFilter takes for a bearer token: a full HMAC signature
+ * check with claim decoding, and a hit in AuthTokenCache. Tokens carry the
+ * same claims AuthServlet issues at login.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+    private static final String SECRET = "benchmark-jwt-secret-of-realistic-length-0123456789";
+
+    private JWTVerifier verifier;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        Algorithm algorithm = Algorithm.HMAC256(SECRET);
+        verifier = JWT.require(algorithm).build();
+
+        String userId = "7b1e9c40-2d3a-4f5b-8c6d-000000000042";
+        Date expiresAt = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(7));
+        token = JWT.create()
+                .withSubject(userId)
+                .withClaim("role", "student")
+                .withClaim("email", "student42@example.edu")
+                .withIssuedAt(new Date())
+                .withExpiresAt(expiresAt)
+                .sign(algorithm);
+
+        Properties properties = new Properties();
+        properties.setProperty("auth.tokenCache.maxEntries", "10000");
+        properties.setProperty("auth.tokenCache.ttlSeconds", "3600");
+        AuthTokenCache.configure(properties);
+        AuthTokenCache.put(token, userId, "student", "student42@example.edu", true, expiresAt,
+                           AuthTokenCache.generationOf(userId));
+    }
+
+    @Benchmark
+    public String verifySignature() {
+        DecodedJWT decoded = verifier.verify(token);
+        return decoded.getSubject() + decoded.getClaim("role").asString() + decoded.getClaim("email").asString();
+    }
+
+    @Benchmark
+    public AuthTokenCache.Entry cachedLookup() {
+        return AuthTokenCache.get(token);
+    }
+}
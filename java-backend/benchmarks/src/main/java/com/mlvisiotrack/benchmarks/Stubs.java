@@ -0,0 +1,168 @@
+package com.mlvisiotrack.benchmarks;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory stand-ins for JDBC and servlet objects, so the benchmarks need no
+ * driver, database or container. The servlet stubs are dynamic proxies, which
+ * add a fixed cost per call; compare results between runs, not against
+ * production.
+ */
+public final class Stubs {
+    private Stubs() {}
+
+    /** Columns of the attendance listing queries, in SELECT order. */
+    public static Map<String, Object> attendanceRow(long id) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", id);
+        row.put("student_id", "3f9c2b1e-7a4d-4c1b-9e2f-" + String.format("%012d", id % 5000));
+        row.put("device_id", "esp32-gate-" + (id % 8));
+        row.put("timestamp", Timestamp.valueOf(LocalDateTime.of(2024, 3, 11, 8, 0).plusSeconds(id * 7)));
+        row.put("student_name", "Student " + (id % 5000));
+        row.put("registration_number", "REG" + (100000 + id % 5000));
+        row.put("department", "Computer Science");
+        return row;
+    }
+
+    /** Columns of the users table, in table order. */
+    public static Map<String, Object> userRow(int n) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", "7b1e9c40-2d3a-4f5b-8c6d-" + String.format("%012d", n));
+        row.put("registration_number", "REG" + (100000 + n));
+        row.put("admin_id", null);
+        row.put("name", "Student " + n);
+        row.put("email", "student" + n + "@example.edu");
+        row.put("password_hash", "$2a$10$abcdefghijklmnopqrstuuJ0fV7Qm1C5mQ0m3uQ9yJ6Vq1k2c3d4e");
+        row.put("role", "student");
+        row.put("department", "Computer Science");
+        row.put("year", "3");
+        row.put("type", "regular");
+        row.put("birth_date", Date.valueOf(LocalDate.of(2003, 5, 17)));
+        row.put("profile_picture", null);
+        row.put("admin_level", null);
+        row.put("is_active", true);
+        row.put("created_at", Timestamp.valueOf(LocalDateTime.of(2023, 9, 1, 10, 0)));
+        row.put("updated_at", Timestamp.valueOf(LocalDateTime.of(2024, 1, 15, 12, 30)));
+        return row;
+    }
+
+    /**
+     * A scrollable in-memory ResultSet (the JDK's CachedRowSet) holding the given
+     * rows, all with the first row's columns. Label lookups go through its
+     * metadata case-insensitively, as a driver's do. Call beforeFirst() to
+     * iterate again.
+     */
+    public static CachedRowSet rowSet(List<Map<String, Object>> rows) throws SQLException {
+        List<String> labels = new ArrayList<>(rows.get(0).keySet());
+
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(labels.size());
+        for (int i = 0; i < labels.size(); i++) {
+            metaData.setColumnName(i + 1, labels.get(i));
+            metaData.setColumnLabel(i + 1, labels.get(i));
+            metaData.setColumnType(i + 1, sqlType(rows, labels.get(i)));
+            metaData.setNullable(i + 1, ResultSetMetaData.columnNullable);
+        }
+
+        CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+        rowSet.setMetaData(metaData);
+        rowSet.moveToInsertRow();
+        for (Map<String, Object> row : rows) {
+            for (int i = 0; i < labels.size(); i++) {
+                Object value = row.get(labels.get(i));
+                if (value == null) {
+                    rowSet.updateNull(i + 1);
+                } else {
+                    rowSet.updateObject(i + 1, value);
+                }
+            }
+            rowSet.insertRow();
+        }
+        rowSet.moveToCurrentRow();
+        rowSet.beforeFirst();
+        return rowSet;
+    }
+
+    // Type of the first non-null value in the column
+    private static int sqlType(List<Map<String, Object>> rows, String label) {
+        for (Map<String, Object> row : rows) {
+            Object value = row.get(label);
+            if (value instanceof Long) {
+                return Types.BIGINT;
+            } else if (value instanceof Timestamp) {
+                return Types.TIMESTAMP;
+            } else if (value instanceof Date) {
+                return Types.DATE;
+            } else if (value instanceof Boolean) {
+                return Types.BOOLEAN;
+            } else if (value != null) {
+                return Types.VARCHAR;
+            }
+        }
+        return Types.VARCHAR;
+    }
+
+    /** A response whose body is counted and dropped. */
+    public static HttpServletResponse discardingResponse(ServletOutputStream out) {
+        return (HttpServletResponse) Proxy.newProxyInstance(Stubs.class.getClassLoader(),
+            new Class<?>[] {HttpServletResponse.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getOutputStream":
+                        return out;
+                    case "getStatus":
+                        return 200;
+                    case "isCommitted":
+                        return false;
+                    case "getCharacterEncoding":
+                        return "UTF-8";
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    public static class CountingOutputStream extends ServletOutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {}
+    }
+}
@@ -0,0 +1,113 @@
+package com.mlvisiotrack.dao;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of a DAO-style call (prepare, bind, execute, read, close) under
+ * the driver settings before and after the statement cache was enabled.
+ * Needs a MySQL server with data, e.g. loaded by
+ * com.mlvisiotrack.tools.DatasetGenerator; point it elsewhere with
+ * -p url=... -p user=... -p password=...
+ *
+ * uncached: server-side statements without a cache (what useCursorFetch gave
+ * the pools before), so every call parses on the server and closes again.
+ * cached: the DatabaseConfig settings, where the prepare is paid once per
+ * connection. clientSide: no server-side statements at all, for reference.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PreparedStatementBenchmark {
+
+    @Param({"uncached", "cached", "clientSide"})
+    public String mode;
+
+    @Param("jdbc:mysql://localhost:3306/mlvisiotrack")
+    public String url;
+
+    @Param("root")
+    public String user;
+
+    @Param("")
+    public String password;
+
+    private Connection conn;
+    private String studentId;
+    private List<Object> pageParameters;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String options = switch (mode) {
+            case "uncached" -> "useServerPrepStmts=true&cachePrepStmts=false";
+            case "cached" -> "useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=4096";
+            case "clientSide" -> "useServerPrepStmts=false";
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        };
+        conn = DriverManager.getConnection(
+            url + (url.contains("?") ? "&" : "?") + "useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true&" + options,
+            user, password);
+
+        // The newest scan gives a student and a day that certainly have rows
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT student_id, timestamp FROM attendance ORDER BY id DESC LIMIT 1");
+             ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                throw new IllegalStateException("No attendance rows; load a dataset with DatasetGenerator first");
+            }
+            studentId = rs.getString(1);
+            LocalDate day = rs.getTimestamp(2).toLocalDateTime().toLocalDate();
+
+            pageParameters = new ArrayList<>();
+            pageParameters.add(studentId);
+            TimestampRange.bind(pageParameters, day.minusDays(30), day);
+            pageParameters.add(21);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Benchmark
+    public int userById() throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT * FROM users WHERE id = ? AND is_active = TRUE")) {
+            stmt.setString(1, studentId);
+            return drain(stmt);
+        }
+    }
+
+    @Benchmark
+    public int studentPage() throws SQLException {
+        String sql = SqlCatalog.ATTENDANCE_PAGE_BY_STUDENT.sql(SqlCatalog.FROM | SqlCatalog.TO);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < pageParameters.size(); i++) {
+                stmt.setObject(i + 1, pageParameters.get(i));
+            }
+            return drain(stmt);
+        }
+    }
+
+    private static int drain(PreparedStatement stmt) throws SQLException {
+        int rows = 0;
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+}
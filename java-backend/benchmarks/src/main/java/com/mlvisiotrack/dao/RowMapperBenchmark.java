@@ -0,0 +1,156 @@
+package com.mlvisiotrack.dao;
+
+import com.mlvisiotrack.benchmarks.Stubs;
+import com.mlvisiotrack.models.AttendanceRecord;
+import com.mlvisiotrack.models.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.rowset.CachedRowSet;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping a whole result set into model objects: the index-based row
+ * mappers against the previous by-label mapping (kept here as the baseline).
+ * Each operation maps every row and resolves the mapper from the metadata
+ * once, as the first call of a query shape does. Lives in the dao package to
+ * reach the package-private mappers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RowMapperBenchmark {
+
+    @Param("100000")
+    public int rows;
+
+    private CachedRowSet attendanceRows;
+    private CachedRowSet userRows;
+
+    @Setup
+    public void setUp() throws SQLException {
+        List<Map<String, Object>> attendance = new ArrayList<>(rows);
+        List<Map<String, Object>> users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            attendance.add(Stubs.attendanceRow(i + 1));
+            users.add(Stubs.userRow(i + 1));
+        }
+        attendanceRows = Stubs.rowSet(attendance);
+        userRows = Stubs.rowSet(users);
+    }
+
+    @Benchmark
+    public void attendanceByLabel(Blackhole blackhole) throws SQLException {
+        attendanceRows.beforeFirst();
+        while (attendanceRows.next()) {
+            blackhole.consume(mapRecordByLabel(attendanceRows));
+        }
+    }
+
+    @Benchmark
+    public void attendanceByIndex(Blackhole blackhole) throws SQLException {
+        attendanceRows.beforeFirst();
+        AttendanceRowMapper mapper = new AttendanceRowMapper(attendanceRows.getMetaData());
+        while (attendanceRows.next()) {
+            blackhole.consume(mapper.map(attendanceRows));
+        }
+    }
+
+    // The export path: timestamps stay text
+    @Benchmark
+    public void attendanceByIndexTextTimestamps(Blackhole blackhole) throws SQLException {
+        attendanceRows.beforeFirst();
+        AttendanceRowMapper mapper = new AttendanceRowMapper(attendanceRows.getMetaData());
+        while (attendanceRows.next()) {
+            blackhole.consume(mapper.map(attendanceRows, false));
+            blackhole.consume(mapper.timestampText(attendanceRows));
+        }
+    }
+
+    @Benchmark
+    public void userByLabel(Blackhole blackhole) throws SQLException {
+        userRows.beforeFirst();
+        while (userRows.next()) {
+            blackhole.consume(mapUserByLabel(userRows));
+        }
+    }
+
+    @Benchmark
+    public void userByIndex(Blackhole blackhole) throws SQLException {
+        userRows.beforeFirst();
+        UserRowMapper mapper = new UserRowMapper(userRows.getMetaData());
+        while (userRows.next()) {
+            blackhole.consume(mapper.map(userRows));
+        }
+    }
+
+    // The by-label mapping the DAOs used before the row mappers
+    private static AttendanceRecord mapRecordByLabel(ResultSet rs) throws SQLException {
+        AttendanceRecord record = new AttendanceRecord();
+        record.setId(rs.getLong("id"));
+        record.setStudentId(rs.getString("student_id"));
+        record.setDeviceId(rs.getString("device_id"));
+
+        Timestamp timestamp = rs.getTimestamp("timestamp");
+        if (timestamp != null) {
+            record.setTimestamp(timestamp.toLocalDateTime());
+        }
+
+        record.setStudentName(rs.getString("student_name"));
+        record.setRegistrationNumber(rs.getString("registration_number"));
+        record.setDepartment(rs.getString("department"));
+        record.setStatus("Present");
+
+        return record;
+    }
+
+    private static User mapUserByLabel(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setId(rs.getString("id"));
+        user.setRegistrationNumber(rs.getString("registration_number"));
+        user.setAdminId(rs.getString("admin_id"));
+        user.setName(rs.getString("name"));
+        user.setEmail(rs.getString("email"));
+        user.setPasswordHash(rs.getString("password_hash"));
+        user.setRole(User.UserRole.fromString(rs.getString("role")));
+        user.setDepartment(rs.getString("department"));
+        user.setYear(rs.getString("year"));
+        user.setType(rs.getString("type"));
+
+        Date birthDate = rs.getDate("birth_date");
+        if (birthDate != null) {
+            user.setBirthDate(birthDate.toLocalDate());
+        }
+
+        user.setProfilePicture(rs.getString("profile_picture"));
+
+        String adminLevelStr = rs.getString("admin_level");
+        if (adminLevelStr != null) {
+            user.setAdminLevel(User.AdminLevel.fromString(adminLevelStr));
+        }
+
+        user.setActive(rs.getBoolean("is_active"));
+
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            user.setCreatedAt(createdAt.toLocalDateTime());
+        }
+
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        if (updatedAt != null) {
+            user.setUpdatedAt(updatedAt.toLocalDateTime());
+        }
+
+        return user;
+    }
+}
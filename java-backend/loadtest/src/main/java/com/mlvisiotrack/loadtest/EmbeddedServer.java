@@ -0,0 +1,55 @@
+package com.mlvisiotrack.loadtest;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.LifecycleState;
+import org.apache.catalina.startup.Tomcat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Runs the built WAR in an in-process Tomcat, configured like a default
+ * standalone connector so results carry over to a real deployment.
+ */
+class EmbeddedServer {
+    private final Tomcat tomcat = new Tomcat();
+    private final String baseUrl;
+
+    EmbeddedServer(Scenario scenario) throws IOException, LifecycleException {
+        File war = new File(scenario.war);
+        if (!war.isFile()) {
+            throw new IOException("WAR not found at " + war.getAbsolutePath() + "; run mvn package in java-backend first");
+        }
+
+        // The application reads -D overrides of its properties at startup
+        for (String key : scenario.serverProperties.stringPropertyNames()) {
+            System.setProperty(key, scenario.serverProperties.getProperty(key));
+        }
+
+        tomcat.setBaseDir(Files.createTempDirectory("mlvisiotrack-loadtest").toString());
+        tomcat.setPort(scenario.port);
+        tomcat.getConnector().setProperty("maxThreads", String.valueOf(scenario.maxThreads));
+
+        Context context = tomcat.addWebapp(scenario.contextPath, war.getAbsolutePath());
+        tomcat.start();
+
+        // A failing ApplicationContextListener (e.g. no database) leaves the context stopped
+        if (context.getState() != LifecycleState.STARTED) {
+            tomcat.stop();
+            throw new IllegalStateException("Web application failed to start; check the database settings in the WAR");
+        }
+
+        baseUrl = "http://localhost:" + tomcat.getConnector().getLocalPort() + scenario.contextPath;
+    }
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    void stop() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
@@ -0,0 +1,409 @@
+package com.mlvisiotrack.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mlvisiotrack.metrics.LogLinearHistogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test for sizing hardware. Boots the WAR (or targets
+ * loadtest.baseUrl), then runs a simulated ESP32 fleet posting scans to
+ * /api/attendance/logAttendance alongside admins polling /getAttendance and
+ * /date/{date}, and prints throughput, latency percentiles and pool waits.
+ *
+ * Usage: LoadTest [scenario.properties], with -Dloadtest.* overrides.
+ */
+public class LoadTest {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Scenario scenario;
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Duration timeout;
+
+    private final OperationStats scans = new OperationStats("POST logAttendance");
+    private final OperationStats getAttendance = new OperationStats("GET getAttendance");
+    private final OperationStats byDate = new OperationStats("GET date/{date}");
+    private final OperationStats streamFirstByte = new OperationStats("GET stream 1st byte");
+    private final OperationStats streamComplete = new OperationStats("GET stream complete");
+    private final OperationStats exportFirstByte = new OperationStats("GET export 1st byte");
+    private final OperationStats exportComplete = new OperationStats("GET export complete");
+
+    private long runStart;
+    private long measureStart;
+    private long runEnd;
+
+    private LoadTest(Scenario scenario, HttpClient client, String baseUrl) {
+        this.scenario = scenario;
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.timeout = Duration.ofMillis(scenario.requestTimeoutMs);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Scenario scenario = Scenario.load(args);
+        System.out.println("Scenario: " + scenario);
+
+        EmbeddedServer server = null;
+        String baseUrl = scenario.baseUrl;
+        if (baseUrl.isEmpty()) {
+            server = new EmbeddedServer(scenario);
+            baseUrl = server.getBaseUrl();
+            System.out.println("Embedded Tomcat serving " + scenario.war + " at " + baseUrl);
+        } else if (!scenario.serverProperties.isEmpty()) {
+            System.out.println("Ignoring loadtest.server.* settings: " + baseUrl + " is configured separately");
+        }
+
+        ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(clientExecutor)
+            .build();
+
+        try {
+            new LoadTest(scenario, client, baseUrl).run();
+        } finally {
+            clientExecutor.shutdownNow();
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    private void run() throws Exception {
+        String token = login();
+        List<String> students = fetchStudents(token);
+        PoolScraper pools = new PoolScraper(client, baseUrl, scenario.metricsToken);
+
+        runStart = System.nanoTime();
+        measureStart = runStart + TimeUnit.SECONDS.toNanos(scenario.warmupSeconds);
+        runEnd = measureStart + TimeUnit.SECONDS.toNanos(scenario.durationSeconds);
+
+        // Each simulated device and admin blocks on its own virtual thread, so large fleets stay cheap
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        for (int i = 0; i < scenario.devices; i++) {
+            int device = i;
+            executor.submit(() -> runDevice(device, students));
+        }
+        for (int i = 0; i < scenario.admins; i++) {
+            int admin = i;
+            executor.submit(() -> runAdmin(admin, token));
+        }
+
+        System.out.printf("Warming up for %ds...%n", scenario.warmupSeconds);
+        sleepUntil(measureStart);
+        PoolScraper.Snapshot before = pools.scrape();
+
+        System.out.printf("Measuring for %ds...%n", scenario.durationSeconds);
+        while (System.nanoTime() < runEnd) {
+            pools.sample();
+            sleepUntil(Math.min(runEnd, System.nanoTime() + TimeUnit.SECONDS.toNanos(1)));
+        }
+        PoolScraper.Snapshot after = pools.scrape();
+
+        // Let requests that were due inside the window finish, up to one request timeout
+        executor.shutdown();
+        if (!executor.awaitTermination(scenario.requestTimeoutMs, TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+
+        report(before, after, pools);
+    }
+
+    /**
+     * Open-loop arrivals: scan times are drawn from a Poisson process whose rate
+     * jumps during bursts (thinning against the peak rate), independent of how
+     * fast the server answers. A device still sends one scan at a time, like
+     * the firmware, so late scans queue up behind a slow response.
+     */
+    private void runDevice(int device, List<String> students) {
+        Random random = new Random(scenario.seed * 31 + device);
+        String deviceId = String.format("LT-ESP32-%03d", device);
+        double peak = scenario.peakDeviceRate();
+        double totalSeconds = scenario.warmupSeconds + scenario.durationSeconds;
+        URI uri = URI.create(baseUrl + "/api/attendance/logAttendance");
+
+        double t = 0;
+        while (peak > 0 && !Thread.currentThread().isInterrupted()) {
+            t += -Math.log(1 - random.nextDouble()) / peak;
+            if (t >= totalSeconds) {
+                break;
+            }
+            if (random.nextDouble() * peak >= scenario.deviceRate(t)) {
+                continue;
+            }
+
+            String studentId = students.get(random.nextInt(students.size()));
+            long due = runStart + (long) (t * 1e9);
+            sleepUntil(due);
+
+            String body = "{\"student_id\":\"" + studentId + "\",\"device_id\":\"" + deviceId + "\"}";
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+            int status = send(request).status;
+            if (due >= measureStart) {
+                scans.record(status, System.nanoTime() - due);
+            }
+        }
+    }
+
+    // Closed loop: each admin waits for a response, then thinks for about pollIntervalMs
+    private void runAdmin(int admin, String token) {
+        Random random = new Random(scenario.seed * 17 + 1000 + admin);
+        Map<String, String> etags = new HashMap<>();
+        int listWeight = scenario.getAttendanceWeight + scenario.dateWeight;
+        int totalWeight = listWeight + scenario.streamWeight + scenario.exportWeight;
+        String since = "startDate=" + LocalDate.now().minusDays(scenario.streamDays);
+
+        while (System.nanoTime() < runEnd) {
+            int pick = random.nextInt(totalWeight);
+            if (pick >= listWeight + scenario.streamWeight) {
+                download(token, "/api/attendance/export?" + since, exportFirstByte, exportComplete);
+                think(random);
+                continue;
+            }
+            if (pick >= listWeight) {
+                download(token, "/api/attendance/getAttendance?stream=true&" + since, streamFirstByte, streamComplete);
+                think(random);
+                continue;
+            }
+
+            boolean list = pick < scenario.getAttendanceWeight;
+            String path = list
+                ? "/api/attendance/getAttendance?limit=" + scenario.pageSize
+                : "/api/attendance/date/" + LocalDate.now() + "?limit=" + scenario.pageSize;
+
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Authorization", "Bearer " + token)
+                .header("Accept-Encoding", "gzip")
+                .GET();
+            String etag = etags.get(path);
+            if (scenario.conditional && etag != null) {
+                builder.header("If-None-Match", etag);
+            }
+
+            long started = System.nanoTime();
+            Result result = send(builder.build());
+            if (started >= measureStart && started < runEnd) {
+                (list ? getAttendance : byDate).record(result.status, System.nanoTime() - started);
+            }
+            if (result.etag != null) {
+                etags.put(path, result.etag);
+            }
+
+            think(random);
+        }
+    }
+
+    private void think(Random random) {
+        long think = (long) (scenario.pollIntervalMs * (0.5 + random.nextDouble()));
+        sleepUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(think));
+    }
+
+    /**
+     * Streamed JSON listing or CSV export of recent days. The server flushes
+     * after the first row, so the first body byte shows how long the client
+     * waits for the query to produce anything; the last byte shows the whole
+     * download. Both accept gzip like a browser, so bytes are as sent.
+     */
+    private void download(String token, String path, OperationStats firstByteStats, OperationStats completeStats) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(timeout)
+            .header("Authorization", "Bearer " + token)
+            .header("Accept-Encoding", "gzip")
+            .GET()
+            .build();
+
+        long started = System.nanoTime();
+        int status = -1;
+        long firstByte = -1;
+        long received = 0;
+        boolean complete = false;
+        try {
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            status = response.statusCode();
+            try (InputStream body = response.body()) {
+                if (body.read() >= 0) {
+                    firstByte = System.nanoTime() - started;
+                    received = 1 + body.transferTo(OutputStream.nullOutputStream());
+                }
+                complete = true;
+            }
+        } catch (IOException e) {
+            // Includes a stream the server aborted mid-body
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long elapsed = System.nanoTime() - started;
+        if (started >= measureStart && started < runEnd) {
+            firstByteStats.record(firstByte >= 0 ? status : -1, firstByte >= 0 ? firstByte : elapsed);
+            completeStats.record(complete ? status : -1, elapsed);
+            if (complete) {
+                completeStats.bytes.add(received);
+            }
+        }
+    }
+
+    private Result send(HttpRequest request) {
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            return new Result(response.statusCode(), response.headers().firstValue("ETag").orElse(null));
+        } catch (IOException e) {
+            return new Result(-1, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Result(-1, null);
+        }
+    }
+
+    private String login() throws IOException, InterruptedException {
+        Map<String, Object> body = Map.of(
+            "identifier", scenario.adminIdentifier,
+            "password", scenario.adminPassword,
+            "isAdmin", true);
+
+        HttpResponse<String> response = client.send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Admin login failed with " + response.statusCode() + ": " + response.body());
+        }
+        return mapper.readTree(response.body()).path("data").path("token").asText();
+    }
+
+    private List<String> fetchStudents(String token) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+            HttpRequest.newBuilder(URI.create(baseUrl + "/api/users?role=student"))
+                .timeout(timeout)
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+
+        List<String> students = new ArrayList<>();
+        if (response.statusCode() == 200) {
+            for (JsonNode user : mapper.readTree(response.body()).path("data")) {
+                students.add(user.path("id").asText());
+            }
+        }
+
+        if (students.isEmpty()) {
+            for (int i = 0; i < scenario.fallbackStudents; i++) {
+                students.add(String.format("LT-%05d", i));
+            }
+            System.out.printf("No students found; scanning %d synthetic ids%n", students.size());
+        } else {
+            System.out.printf("Scanning %d students%n", students.size());
+        }
+        return students;
+    }
+
+    private void report(PoolScraper.Snapshot before, PoolScraper.Snapshot after, PoolScraper pools) {
+        double seconds = scenario.durationSeconds;
+        double base = scenario.devices * scenario.scansPerMinute / 60.0;
+        double offered = base * (1 + (scenario.burstFactor - 1) * scenario.burstDurationSeconds / scenario.burstPeriodSeconds);
+
+        System.out.println();
+        System.out.printf("Offered scan load: %.1f/s average, %.1f/s during bursts%n", offered, base * scenario.burstFactor);
+        System.out.println();
+        System.out.printf("%-20s %9s %8s %8s %7s %6s %6s %6s %9s %9s %9s %9s%n",
+            "operation", "requests", "req/s", "2xx", "304", "503", "err", "fail",
+            "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+        long total = 0;
+        for (OperationStats stats : List.of(scans, getAttendance, byDate, streamFirstByte, streamComplete, 
+                                            exportFirstByte, exportComplete)) {
+            LogLinearHistogram.Snapshot latency = stats.latency.snapshot();
+            total += latency.getCount();
+            System.out.printf("%-20s %9d %8.1f %8d %7d %6d %6d %6d %9.1f %9.1f %9.1f %9.1f%n",
+                stats.name, latency.getCount(), latency.getCount() / seconds,
+                stats.ok.sum(), stats.notModified.sum(), stats.rejected.sum(), stats.errors.sum(), stats.failures.sum(),
+                latency.percentile(0.5) / 1000.0, latency.percentile(0.99) / 1000.0,
+                latency.percentile(0.999) / 1000.0, latency.getMax() / 1000.0);
+        }
+        System.out.printf("%-20s %9d %8.1f%n", "total", total, total / seconds);
+
+        // Same rows as JSON and as CSV: compare these alongside the completion times above
+        for (OperationStats stats : List.of(streamComplete, exportComplete)) {
+            long downloads = stats.ok.sum();
+            if (downloads > 0) {
+                System.out.printf("%-20s %9.2f MB per download%n", stats.name, stats.bytes.sum() / 1e6 / downloads);
+            }
+        }
+
+        System.out.println();
+        if (before == null || after == null) {
+            System.out.println("Pool metrics unavailable (set loadtest.metricsToken to the server's http.metrics.token)");
+            return;
+        }
+
+        System.out.printf("%-24s %12s %12s %14s %12s %11s %9s%n",
+            "pool", "acquisitions", "mean wait ms", "p99 wait <= ms", "max pending", "max active", "timeouts");
+        for (Map.Entry<String, PoolScraper.Pool> entry : after.pools.entrySet()) {
+            PoolScraper.Pool now = entry.getValue();
+            PoolScraper.Pool then = before.pools.get(entry.getKey());
+
+            long acquisitions = now.acquireCount - (then != null ? then.acquireCount : 0);
+            double waitSeconds = now.acquireSeconds - (then != null ? then.acquireSeconds : 0);
+            long timeouts = now.timeouts - (then != null ? then.timeouts : 0);
+
+            System.out.printf("%-24s %12d %12.2f %14s %12d %11d %9d%n",
+                entry.getKey(), acquisitions,
+                acquisitions > 0 ? waitSeconds * 1000 / acquisitions : 0.0,
+                formatBound(now.acquireQuantileSince(then, 0.99)),
+                pools.getMaxPending(entry.getKey()), pools.getMaxActive(entry.getKey()), timeouts);
+        }
+    }
+
+    private static String formatBound(double seconds) {
+        return Double.isInfinite(seconds) ? "> 30000" : String.format("%.1f", seconds * 1000);
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static class Result {
+        final int status;
+        final String etag;
+
+        Result(int status, String etag) {
+            this.status = status;
+            this.etag = etag;
+        }
+    }
+}
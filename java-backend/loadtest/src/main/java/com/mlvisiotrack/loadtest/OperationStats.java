@@ -0,0 +1,43 @@
+package com.mlvisiotrack.loadtest;
+
+import com.mlvisiotrack.metrics.LogLinearHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side outcome of one kind of request. Latency is in microseconds and,
+ * for open-loop device scans, measured from when the scan was due rather than
+ * when it was sent, so a stalled server is not hidden by fewer requests.
+ */
+class OperationStats {
+    final String name;
+    final LogLinearHistogram latency = new LogLinearHistogram();
+    final LongAdder ok = new LongAdder();
+    final LongAdder notModified = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LongAdder failures = new LongAdder();
+    // Body bytes as received (compressed when the server compressed them); only downloads count them
+    final LongAdder bytes = new LongAdder();
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    // status -1 means no response (timeout or connection error)
+    void record(int status, long nanos) {
+        latency.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        if (status == 304) {
+            notModified.increment();
+        } else if (status == 503) {
+            rejected.increment();
+        } else if (status >= 200 && status < 300) {
+            ok.increment();
+        } else if (status < 0) {
+            failures.increment();
+        } else {
+            errors.increment();
+        }
+    }
+}
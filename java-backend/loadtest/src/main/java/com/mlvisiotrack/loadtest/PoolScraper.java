@@ -0,0 +1,156 @@
+package com.mlvisiotrack.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads connection pool metrics from the server's /api/metrics endpoint. That
+ * endpoint answers the server's metrics token, or loopback clients when it has
+ * none; otherwise the pool section of the report is skipped.
+ */
+class PoolScraper {
+    private static final Pattern SAMPLE = Pattern.compile("^(\\w+)\\{([^}]*)\\} (\\S+)$");
+    private static final Pattern LABEL = Pattern.compile("(\\w+)=\"([^\"]*)\"");
+
+    private final HttpClient client;
+    private final URI uri;
+    private final String token;
+
+    // Highest values seen by sample(), per pool
+    private final Map<String, Integer> maxPending = new TreeMap<>();
+    private final Map<String, Integer> maxActive = new TreeMap<>();
+
+    PoolScraper(HttpClient client, String baseUrl, String token) {
+        this.client = client;
+        this.uri = URI.create(baseUrl + "/api/metrics");
+        this.token = token;
+    }
+
+    /** One scrape, or null when the endpoint is unreachable or refuses us. */
+    Snapshot scrape() {
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(5)).GET();
+            if (!token.isEmpty()) {
+                request.header("Authorization", "Bearer " + token);
+            }
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 ? parse(response.body()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Called about once a second while measuring to catch queueing peaks
+    synchronized void sample() {
+        Snapshot snapshot = scrape();
+        if (snapshot == null) {
+            return;
+        }
+        for (Map.Entry<String, Pool> entry : snapshot.pools.entrySet()) {
+            maxPending.merge(entry.getKey(), entry.getValue().pending, Math::max);
+            maxActive.merge(entry.getKey(), entry.getValue().active, Math::max);
+        }
+    }
+
+    synchronized int getMaxPending(String pool) {
+        return maxPending.getOrDefault(pool, 0);
+    }
+
+    synchronized int getMaxActive(String pool) {
+        return maxActive.getOrDefault(pool, 0);
+    }
+
+    static Snapshot parse(String body) {
+        Snapshot snapshot = new Snapshot();
+
+        for (String line : body.split("\n")) {
+            Matcher sample = SAMPLE.matcher(line);
+            if (!sample.matches()) {
+                continue;
+            }
+
+            String name = sample.group(1);
+            if (!name.startsWith("mlvisiotrack_pool_")) {
+                continue;
+            }
+
+            Map<String, String> labels = new TreeMap<>();
+            Matcher label = LABEL.matcher(sample.group(2));
+            while (label.find()) {
+                labels.put(label.group(1), label.group(2));
+            }
+            String poolName = labels.get("pool");
+            if (poolName == null) {
+                continue;
+            }
+
+            Pool pool = snapshot.pools.computeIfAbsent(poolName, key -> new Pool());
+            double value = Double.parseDouble(sample.group(3));
+            switch (name) {
+                case "mlvisiotrack_pool_connections_active":
+                    pool.active = (int) value;
+                    break;
+                case "mlvisiotrack_pool_connections_pending":
+                    pool.pending = (int) value;
+                    break;
+                case "mlvisiotrack_pool_connection_timeouts_total":
+                    pool.timeouts = (long) value;
+                    break;
+                case "mlvisiotrack_pool_acquire_seconds_bucket":
+                    pool.acquireBuckets.put(parseBound(labels.get("le")), (long) value);
+                    break;
+                case "mlvisiotrack_pool_acquire_seconds_sum":
+                    pool.acquireSeconds = value;
+                    break;
+                case "mlvisiotrack_pool_acquire_seconds_count":
+                    pool.acquireCount = (long) value;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return snapshot;
+    }
+
+    private static double parseBound(String le) {
+        return "+Inf".equals(le) ? Double.POSITIVE_INFINITY : Double.parseDouble(le);
+    }
+
+    static class Snapshot {
+        final Map<String, Pool> pools = new TreeMap<>();
+    }
+
+    static class Pool {
+        int active;
+        int pending;
+        long timeouts;
+        // Cumulative counts keyed by upper bound in seconds
+        final TreeMap<Double, Long> acquireBuckets = new TreeMap<>();
+        double acquireSeconds;
+        long acquireCount;
+
+        // Smallest bucket bound covering the quantile of acquisitions since the earlier snapshot
+        double acquireQuantileSince(Pool earlier, double quantile) {
+            long total = acquireCount - (earlier != null ? earlier.acquireCount : 0);
+            if (total <= 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(quantile * total);
+            for (Map.Entry<Double, Long> bucket : acquireBuckets.entrySet()) {
+                long before = earlier != null ? earlier.acquireBuckets.getOrDefault(bucket.getKey(), 0L) : 0;
+                if (bucket.getValue() - before >= rank) {
+                    return bucket.getKey();
+                }
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+    }
+}
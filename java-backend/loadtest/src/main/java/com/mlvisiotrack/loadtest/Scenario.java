@@ -0,0 +1,147 @@
+package com.mlvisiotrack.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Load test settings: the bundled loadtest.properties, then an optional file
+ * given on the command line, then -D system properties.
+ */
+public class Scenario {
+    final String baseUrl;
+    final String war;
+    final String contextPath;
+    final int port;
+    final int maxThreads;
+
+    final int warmupSeconds;
+    final int durationSeconds;
+    final long seed;
+
+    final int devices;
+    final double scansPerMinute;
+    final int burstPeriodSeconds;
+    final int burstDurationSeconds;
+    final double burstFactor;
+
+    final int admins;
+    final long pollIntervalMs;
+    final int getAttendanceWeight;
+    final int dateWeight;
+    final int streamWeight;
+    final int exportWeight;
+    final int streamDays;
+    final int pageSize;
+    final boolean conditional;
+    final String adminIdentifier;
+    final String adminPassword;
+
+    final int fallbackStudents;
+    final long requestTimeoutMs;
+    final String metricsToken;
+
+    // loadtest.server.<key> entries, applied to the embedded server's application.properties
+    final Properties serverProperties = new Properties();
+
+    private Scenario(Properties p) {
+        baseUrl = p.getProperty("loadtest.baseUrl", "").trim();
+        war = p.getProperty("loadtest.war");
+        contextPath = p.getProperty("loadtest.contextPath", "/mlvisiotrack-backend");
+        port = Integer.parseInt(p.getProperty("loadtest.port", "8180"));
+        maxThreads = Integer.parseInt(p.getProperty("loadtest.tomcat.maxThreads", "200"));
+
+        warmupSeconds = Integer.parseInt(p.getProperty("loadtest.warmupSeconds", "30"));
+        durationSeconds = Integer.parseInt(p.getProperty("loadtest.durationSeconds", "120"));
+        seed = Long.parseLong(p.getProperty("loadtest.seed", "42"));
+
+        devices = Integer.parseInt(p.getProperty("loadtest.devices", "50"));
+        scansPerMinute = Double.parseDouble(p.getProperty("loadtest.device.scansPerMinute", "2"));
+        burstPeriodSeconds = Integer.parseInt(p.getProperty("loadtest.device.burst.periodSeconds", "60"));
+        burstDurationSeconds = Integer.parseInt(p.getProperty("loadtest.device.burst.durationSeconds", "10"));
+        burstFactor = Double.parseDouble(p.getProperty("loadtest.device.burst.factor", "15"));
+
+        admins = Integer.parseInt(p.getProperty("loadtest.admins", "5"));
+        pollIntervalMs = Long.parseLong(p.getProperty("loadtest.admin.pollIntervalMs", "2000"));
+        getAttendanceWeight = Integer.parseInt(p.getProperty("loadtest.admin.mix.getAttendance", "70"));
+        dateWeight = Integer.parseInt(p.getProperty("loadtest.admin.mix.date", "30"));
+        streamWeight = Integer.parseInt(p.getProperty("loadtest.admin.mix.stream", "0"));
+        exportWeight = Integer.parseInt(p.getProperty("loadtest.admin.mix.export", "0"));
+        streamDays = Integer.parseInt(p.getProperty("loadtest.admin.streamDays", "7"));
+        pageSize = Integer.parseInt(p.getProperty("loadtest.admin.pageSize", "50"));
+        conditional = Boolean.parseBoolean(p.getProperty("loadtest.admin.conditional", "true"));
+        adminIdentifier = p.getProperty("loadtest.admin.identifier", "ADM001");
+        adminPassword = p.getProperty("loadtest.admin.password", "admin123");
+
+        fallbackStudents = Integer.parseInt(p.getProperty("loadtest.fallbackStudents", "2000"));
+        requestTimeoutMs = Long.parseLong(p.getProperty("loadtest.requestTimeoutMs", "30000"));
+        metricsToken = p.getProperty("loadtest.metricsToken", "").trim();
+
+        for (String key : p.stringPropertyNames()) {
+            if (key.startsWith("loadtest.server.")) {
+                serverProperties.setProperty(key.substring("loadtest.server.".length()), p.getProperty(key));
+            }
+        }
+
+        if (burstDurationSeconds > burstPeriodSeconds) {
+            throw new IllegalArgumentException("loadtest.device.burst.durationSeconds exceeds periodSeconds");
+        }
+        if (getAttendanceWeight + dateWeight + streamWeight + exportWeight <= 0) {
+            throw new IllegalArgumentException("loadtest.admin.mix weights must not all be zero");
+        }
+    }
+
+    static Scenario load(String[] args) throws IOException {
+        Properties properties = new Properties();
+
+        try (InputStream input = Scenario.class.getClassLoader().getResourceAsStream("loadtest.properties")) {
+            if (input == null) {
+                throw new IOException("loadtest.properties file not found");
+            }
+            properties.load(input);
+        }
+
+        if (args.length > 0) {
+            try (Reader reader = Files.newBufferedReader(Path.of(args[0]))) {
+                properties.load(reader);
+            }
+        }
+
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("loadtest.")) {
+                properties.setProperty(key, System.getProperty(key));
+            }
+        }
+
+        return new Scenario(properties);
+    }
+
+    // Scans per second for one device at the given offset into the run
+    double deviceRate(double elapsedSeconds) {
+        double base = scansPerMinute / 60.0;
+        return inBurst(elapsedSeconds) ? base * burstFactor : base;
+    }
+
+    double peakDeviceRate() {
+        return scansPerMinute / 60.0 * Math.max(1.0, burstFactor);
+    }
+
+    // Bursts open each period, so every run starts with a changeover
+    boolean inBurst(double elapsedSeconds) {
+        return burstDurationSeconds > 0 && elapsedSeconds % burstPeriodSeconds < burstDurationSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%d devices at %.1f scans/min (x%.0f for %ds every %ds), %d admins polling every %dms "
+            + "(getAttendance:date:stream:export = %d:%d:%d:%d, conditional=%s); warmup %ds, measure %ds, seed %d",
+            devices, scansPerMinute, burstFactor, burstDurationSeconds, burstPeriodSeconds,
+            admins, pollIntervalMs, getAttendanceWeight, dateWeight, streamWeight, exportWeight, conditional,
+            warmupSeconds, durationSeconds, seed)
+            + (serverProperties.isEmpty() ? "" : "; server " + serverProperties);
+    }
+}
@@ -1,5 +1,11 @@
 package com.mlvisiotrack.config;
 
+import com.mlvisiotrack.dao.AttendanceBatchWriter;
+import com.mlvisiotrack.dao.AttendanceDAO;
+import com.mlvisiotrack.dao.DuplicateScanWindow;
+import com.mlvisiotrack.utils.AuthTokenCache;
+import com.mlvisiotrack.utils.DataVersion;
+import com.mlvisiotrack.utils.JsonResponse;
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import org.slf4j.Logger;
@@ -23,9 +29,22 @@ public class ApplicationContextListener implements ServletContextListener {
             // Initialize database
             DatabaseConfig.initialize(properties);
             
+            AuthTokenCache.configure(properties);
+            JsonResponse.configure(properties);
+            DataVersion.configure(properties);
+            
             // Store properties in servlet context
             sce.getServletContext().setAttribute("appProperties", properties);
             
+            // Start group-commit ingest when enabled
+            if ("batched".equalsIgnoreCase(properties.getProperty("attendance.ingest.mode", "direct"))) {
+                AttendanceBatchWriter batchWriter = new AttendanceBatchWriter(new AttendanceDAO(), properties);
+                batchWriter.start();
+                sce.getServletContext().setAttribute("attendanceBatchWriter", batchWriter);
+            }
+            
+            sce.getServletContext().setAttribute("duplicateScanWindow", new DuplicateScanWindow(properties));
+            
             logger.info("✅ MLVisioTrack Backend initialized successfully");
             
         } catch (Exception e) {
@@ -39,6 +58,11 @@ public class ApplicationContextListener implements ServletContextListener {
         logger.info("🛑 Shutting down MLVisioTrack Backend...");
         
         try {
+            AttendanceBatchWriter batchWriter = (AttendanceBatchWriter) sce.getServletContext().getAttribute("attendanceBatchWriter");
+            if (batchWriter != null) {
+                batchWriter.shutdown();
+            }
+            
             DatabaseConfig.shutdown();
             logger.info("✅ Application shutdown completed");
         } catch (Exception e) {
@@ -56,6 +80,14 @@ public class ApplicationContextListener implements ServletContextListener {
             properties.load(input);
         }
         
+        // -D<key>=<value> on the JVM overrides a key from the file, so one WAR can run either way
+        for (String key : properties.stringPropertyNames()) {
+            String override = System.getProperty(key);
+            if (override != null) {
+                properties.setProperty(key, override);
+            }
+        }
+        
         return properties;
     }
 }
\ No newline at end of file
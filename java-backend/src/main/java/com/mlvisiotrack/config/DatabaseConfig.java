@@ -2,71 +2,327 @@ package com.mlvisiotrack.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.mlvisiotrack.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class DatabaseConfig {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
-    private static HikariDataSource dataSource;
+    // One pool per workload class on the primary (bulkheads)
+    private static final Map<Workload, HikariDataSource> pools = new EnumMap<>(Workload.class);
+    
+    // Optional read replicas, used round-robin by getReadConnection(); each replica gets
+    // one pool per workload so the bulkheads hold there too
+    private static final Map<Workload, List<ReplicaPool>> readPools = new EnumMap<>(Workload.class);
+    private static int replicaCount;
+    private static long replicaBackoffNanos;
+    private static final AtomicInteger nextReplica = new AtomicInteger();
+    private static final LongAdder readFallbacks = new LongAdder();
+    
+    // Read-your-writes: after writing, a session keeps reading from the primary for a while
+    private static final ThreadLocal<String> currentSession = new ThreadLocal<>();
+    private static final ConcurrentMap<String, Long> recentWriters = new ConcurrentHashMap<>();
+    private static long readYourWritesNanos;
     
     public static void initialize(Properties properties) {
         try {
-            HikariConfig config = new HikariConfig();
-            
             String host = properties.getProperty("db.host", "localhost");
             String port = properties.getProperty("db.port", "3306");
-            String dbName = properties.getProperty("db.name", "mlvisiotrack");
-            String username = properties.getProperty("db.username", "root");
-            String password = properties.getProperty("db.password", "");
-            
-            String jdbcUrl = String.format("jdbc:mysql://%s:%s/%s?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true", 
-                                         host, port, dbName);
-            
-            config.setJdbcUrl(jdbcUrl);
-            config.setUsername(username);
-            config.setPassword(password);
-            config.setDriverClassName("com.mysql.cj.jdbc.Driver");
-            
-            // Connection pool settings
-            config.setMaximumPoolSize(Integer.parseInt(properties.getProperty("db.pool.maxSize", "20")));
-            config.setMinimumIdle(Integer.parseInt(properties.getProperty("db.pool.minIdle", "5")));
-            config.setConnectionTimeout(30000);
-            config.setIdleTimeout(600000);
-            config.setMaxLifetime(1800000);
-            
-            // Connection validation
-            config.setConnectionTestQuery("SELECT 1");
-            config.setValidationTimeout(5000);
             
-            dataSource = new HikariDataSource(config);
+            for (Workload workload : Workload.values()) {
+                String prefix = "db.pool." + workload.getPropertyName() + ".";
+                
+                HikariConfig config = createPoolConfig(properties, host, port);
+                config.setPoolName(workload.getPropertyName());
+                config.setMaximumPoolSize(Integer.parseInt(properties.getProperty(prefix + "maxSize", 
+                    String.valueOf(workload.getDefaultMaxSize()))));
+                config.setMinimumIdle(Integer.parseInt(properties.getProperty(prefix + "minIdle", 
+                    String.valueOf(workload.getDefaultMinIdle()))));
+                // With virtual threads the pools are the concurrency limit; this bounds how long a request queues for one
+                config.setConnectionTimeout(Long.parseLong(properties.getProperty(prefix + "connectionTimeoutMs", 
+                    String.valueOf(workload.getDefaultConnectionTimeoutMs()))));
+                
+                pools.put(workload, new HikariDataSource(config));
+            }
             
             // Test connection
-            try (Connection conn = dataSource.getConnection()) {
+            try (Connection conn = pools.get(Workload.INTERACTIVE).getConnection()) {
                 logger.info("✅ MySQL Database connected successfully");
             }
             
+            initializeReplicas(properties);
+            readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(
+                Long.parseLong(properties.getProperty("db.read.readYourWritesMs", "0")));
+            
         } catch (Exception e) {
             logger.error("❌ Failed to initialize database connection", e);
             throw new RuntimeException("Database initialization failed", e);
         }
     }
     
-    public static Connection getConnection() throws SQLException {
-        if (dataSource == null) {
+    private static void initializeReplicas(Properties properties) {
+        String hosts = properties.getProperty("db.read.hosts", "").trim();
+        if (hosts.isEmpty()) {
+            return;
+        }
+        replicaBackoffNanos = TimeUnit.MILLISECONDS.toNanos(
+            Long.parseLong(properties.getProperty("db.read.unavailableBackoffMs", "30000")));
+        
+        for (String hostAndPort : hosts.split(",")) {
+            String[] parts = hostAndPort.trim().split(":");
+            String host = parts[0];
+            String port = parts.length > 1 ? parts[1] : "3306";
+            
+            for (Workload workload : Workload.values()) {
+                String prefix = "db.read.pool." + workload.getPropertyName() + ".";
+                // Sized like the workload's primary pool unless overridden; 0 keeps the class on the primary
+                int maxSize = Integer.parseInt(properties.getProperty(prefix + "maxSize", 
+                    properties.getProperty("db.pool." + workload.getPropertyName() + ".maxSize", 
+                        String.valueOf(workload.getDefaultMaxSize()))));
+                if (maxSize <= 0) {
+                    continue;
+                }
+                
+                HikariConfig config = createPoolConfig(properties, host, port);
+                config.setPoolName("replica-" + host + ":" + port + "-" + workload.getPropertyName());
+                config.setUsername(properties.getProperty("db.read.username", config.getUsername()));
+                config.setPassword(properties.getProperty("db.read.password", config.getPassword()));
+                config.setReadOnly(true);
+                config.setMaximumPoolSize(maxSize);
+                config.setMinimumIdle(Math.min(maxSize, Integer.parseInt(properties.getProperty(prefix + "minIdle", 
+                    String.valueOf(workload.getDefaultMinIdle())))));
+                // Fail over to the next replica (or the primary) quickly instead of queueing
+                config.setConnectionTimeout(Long.parseLong(properties.getProperty(prefix + "connectionTimeoutMs", 
+                    properties.getProperty("db.read.pool.connectionTimeoutMs", "2000"))));
+                // A replica that is down at startup must not stop the application
+                config.setInitializationFailTimeout(-1);
+                
+                readPools.computeIfAbsent(workload, w -> new ArrayList<>()).add(new ReplicaPool(new HikariDataSource(config)));
+            }
+            replicaCount++;
+            logger.info("Read replica configured at {}:{}", host, port);
+        }
+    }
+    
+    private static HikariConfig createPoolConfig(Properties properties, String host, String port) {
+        HikariConfig config = new HikariConfig();
+        
+        String dbName = properties.getProperty("db.name", "mlvisiotrack");
+        String username = properties.getProperty("db.username", "root");
+        String password = properties.getProperty("db.password", "");
+        
+        String jdbcUrl = String.format("jdbc:mysql://%s:%s/%s?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true", 
+                                     host, port, dbName);
+        
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        
+        // Server-side prepared statements, cached per connection so each DAO call skips the
+        // prepare round trip. The SQL limit must cover the longest SqlCatalog text and the
+        // stats query.
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", properties.getProperty("db.prepStmtCacheSize", "250"));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", properties.getProperty("db.prepStmtCacheSqlLimit", "4096"));
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        
+        // Connection pool settings
+        config.setIdleTimeout(600000);
+        config.setMaxLifetime(1800000);
+        
+        // Connection validation
+        config.setConnectionTestQuery("SELECT 1");
+        config.setValidationTimeout(5000);
+        
+        // Pool gauges, acquire and usage times for /api/metrics
+        config.setMetricsTrackerFactory(Metrics.poolTrackerFactory());
+        
+        return config;
+    }
+    
+    /**
+     * Connection to the primary for writes, from the workload's own pool.
+     * Marks the current session as a recent writer for the read-your-writes
+     * window.
+     */
+    public static Connection getWriteConnection(Workload workload) throws SQLException {
+        String session = currentSession.get();
+        if (session != null && readYourWritesNanos > 0) {
+            recentWriters.put(session, System.nanoTime() + readYourWritesNanos);
+        }
+        return getPrimaryConnection(workload);
+    }
+    
+    /**
+     * Connection for reports, listings and stats. Uses a replica when one is
+     * configured and reachable, otherwise the primary. Sessions that wrote
+     * within db.read.readYourWritesMs also stay on the primary. Both the
+     * replica pool and any fallback belong to the workload, never another
+     * class. A replica pool that fails to hand out a connection is skipped
+     * for db.read.unavailableBackoffMs, so reads do not each wait out its
+     * connection timeout while the replica is down.
+     */
+    public static Connection getReadConnection(Workload workload) throws SQLException {
+        List<ReplicaPool> replicas = readPools.get(workload);
+        if (replicas == null || isRecentWriter()) {
+            return getPrimaryConnection(workload);
+        }
+        
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaPool replica = replicas.get((start + i) % replicas.size());
+            if (System.nanoTime() - replica.skipUntil < 0) {
+                continue;
+            }
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.skipUntil = System.nanoTime() + replicaBackoffNanos;
+                logger.warn("Read replica {} unavailable, skipping it for {}ms: {}", replica.dataSource.getPoolName(), 
+                            TimeUnit.NANOSECONDS.toMillis(replicaBackoffNanos), e.getMessage());
+            }
+        }
+        
+        readFallbacks.increment();
+        return getPrimaryConnection(workload);
+    }
+    
+    // Primary without counting as a write, for lookups that must never lag (authentication, read-after-create)
+    public static Connection getPrimaryConnection(Workload workload) throws SQLException {
+        HikariDataSource pool = pools.get(workload);
+        if (pool == null) {
             throw new SQLException("DataSource not initialized");
         }
-        return dataSource.getConnection();
+        return pool.getConnection();
+    }
+    
+    private static boolean isRecentWriter() {
+        String session = currentSession.get();
+        if (session == null) {
+            return false;
+        }
+        
+        Long until = recentWriters.get(session);
+        if (until == null) {
+            return false;
+        }
+        if (System.nanoTime() - until < 0) {
+            return true;
+        }
+        recentWriters.remove(session, until);
+        return false;
+    }
+    
+    // Binds the authenticated user to this thread so their writes and reads can be correlated
+    public static void bindSession(String sessionKey) {
+        currentSession.set(sessionKey);
+    }
+    
+    /**
+     * Wraps work handed to another thread (such as the credential executor)
+     * so it runs under the calling thread's session and its writes still mark
+     * the user as a recent writer.
+     */
+    public static Runnable inCurrentSession(Runnable task) {
+        String session = currentSession.get();
+        if (session == null) {
+            return task;
+        }
+        
+        return () -> {
+            String previous = currentSession.get();
+            currentSession.set(session);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    currentSession.remove();
+                } else {
+                    currentSession.set(previous);
+                }
+            }
+        };
+    }
+    
+    public static void clearSession() {
+        currentSession.remove();
+        
+        // Cheap bound on the map: drop expired writers once it grows
+        if (recentWriters.size() > 10000) {
+            long now = System.nanoTime();
+            recentWriters.values().removeIf(until -> now - until >= 0);
+        }
+    }
+    
+    // Live pool state for /stats: active, idle and waiting threads per workload
+    public static Map<String, Map<String, Integer>> getPoolStats() {
+        Map<String, Map<String, Integer>> stats = new LinkedHashMap<>();
+        for (Map.Entry<Workload, HikariDataSource> entry : pools.entrySet()) {
+            HikariPoolMXBean pool = entry.getValue().getHikariPoolMXBean();
+            if (pool == null) {
+                continue;
+            }
+            Map<String, Integer> poolStats = new LinkedHashMap<>();
+            poolStats.put("active", pool.getActiveConnections());
+            poolStats.put("idle", pool.getIdleConnections());
+            poolStats.put("waiting", pool.getThreadsAwaitingConnection());
+            poolStats.put("max", entry.getValue().getMaximumPoolSize());
+            stats.put(entry.getKey().getPropertyName(), poolStats);
+        }
+        return stats;
+    }
+    
+    public static int getReplicaCount() {
+        return replicaCount;
+    }
+    
+    public static long getReadFallbacks() {
+        return readFallbacks.sum();
     }
     
     public static void shutdown() {
-        if (dataSource != null && !dataSource.isClosed()) {
-            dataSource.close();
-            logger.info("Database connection pool closed");
+        for (List<ReplicaPool> replicas : readPools.values()) {
+            for (ReplicaPool replica : replicas) {
+                replica.dataSource.close();
+            }
+        }
+        readPools.clear();
+        replicaCount = 0;
+        
+        if (!pools.isEmpty()) {
+            for (HikariDataSource pool : pools.values()) {
+                pool.close();
+            }
+            pools.clear();
+            logger.info("Database connection pools closed");
+        }
+    }
+    
+    // A replica's pool for one workload, with the time before which reads skip it after a failure
+    private static class ReplicaPool {
+        private final HikariDataSource dataSource;
+        private volatile long skipUntil;
+        
+        ReplicaPool(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+            this.skipUntil = System.nanoTime();
         }
     }
-}
\ No newline at end of file
+}
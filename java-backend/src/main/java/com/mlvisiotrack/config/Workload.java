@@ -0,0 +1,32 @@
+package com.mlvisiotrack.config;
+
+/**
+ * Workload classes that get their own connection pool on the primary, so a
+ * burst in one class cannot exhaust connections needed by another. Each pool
+ * is sized by db.pool.&lt;name&gt;.maxSize, minIdle and connectionTimeoutMs.
+ */
+public enum Workload {
+    // ESP32 scans and replays: small pool, fails fast rather than queueing behind reports
+    INGEST("ingest", 5, 2, 5000),
+    // Dashboard pages, user management and authentication
+    INTERACTIVE("interactive", 20, 5, 30000),
+    // Streams, exports, stats and rollup rebuilds: few connections, long waits are acceptable
+    REPORTING("reporting", 4, 0, 60000);
+
+    private final String propertyName;
+    private final int defaultMaxSize;
+    private final int defaultMinIdle;
+    private final long defaultConnectionTimeoutMs;
+
+    Workload(String propertyName, int defaultMaxSize, int defaultMinIdle, long defaultConnectionTimeoutMs) {
+        this.propertyName = propertyName;
+        this.defaultMaxSize = defaultMaxSize;
+        this.defaultMinIdle = defaultMinIdle;
+        this.defaultConnectionTimeoutMs = defaultConnectionTimeoutMs;
+    }
+
+    public String getPropertyName() { return propertyName; }
+    public int getDefaultMaxSize() { return defaultMaxSize; }
+    public int getDefaultMinIdle() { return defaultMinIdle; }
+    public long getDefaultConnectionTimeoutMs() { return defaultConnectionTimeoutMs; }
+}
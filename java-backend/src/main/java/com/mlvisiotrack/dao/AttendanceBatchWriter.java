@@ -0,0 +1,195 @@
+package com.mlvisiotrack.dao;
+
+import com.mlvisiotrack.models.AttendanceRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Group-commit writer for ESP32 scans. Callers enqueue scans into a bounded
+ * queue and block until a single writer thread has flushed them to MySQL as
+ * part of a multi-row INSERT.
+ */
+public class AttendanceBatchWriter {
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceBatchWriter.class);
+    // How long an idle writer waits before rechecking the running flag
+    private static final long IDLE_POLL_MS = 100;
+
+    private final AttendanceDAO attendanceDAO;
+    private final BlockingQueue<PendingScan> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long submitTimeoutMs;
+    private final Thread writerThread;
+    private volatile boolean running;
+
+    private final LongAdder scansWritten = new LongAdder();
+    private final LongAdder batchesWritten = new LongAdder();
+    private final LongAdder scansRejected = new LongAdder();
+
+    public AttendanceBatchWriter(AttendanceDAO attendanceDAO, Properties properties) {
+        this.attendanceDAO = attendanceDAO;
+        this.queue = new ArrayBlockingQueue<>(Integer.parseInt(properties.getProperty("attendance.ingest.queueCapacity", "10000")));
+        this.batchSize = Integer.parseInt(properties.getProperty("attendance.ingest.batchSize", "100"));
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(properties.getProperty("attendance.ingest.lingerMs", "5")));
+        this.submitTimeoutMs = Long.parseLong(properties.getProperty("attendance.ingest.submitTimeoutMs", "10000"));
+        this.writerThread = new Thread(this::runWriter, "attendance-batch-writer");
+        this.writerThread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        writerThread.start();
+        logger.info("Attendance batch writer started (batchSize={}, lingerMs={})",
+                    batchSize, TimeUnit.NANOSECONDS.toMillis(lingerNanos));
+    }
+
+    // The writer sees the flag within IDLE_POLL_MS, then drains the queue in batchSize batches.
+    // It is not interrupted, so a flush in progress keeps its connection and statement.
+    public void shutdown() {
+        running = false;
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Whatever the writer did not get to (join timed out, or a late submit) fails now rather than timing out
+        List<PendingScan> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        SQLException stopped = new SQLException("Attendance batch writer stopped before the scan was written");
+        for (PendingScan scan : abandoned) {
+            scan.result.completeExceptionally(stopped);
+        }
+        logger.info("Attendance batch writer stopped ({} queued scans abandoned)", abandoned.size());
+    }
+
+    /**
+     * Queues a scan for the next group commit. The returned future completes
+     * with the stored record (including its generated id) once the batch has
+     * been written.
+     */
+    public CompletableFuture<AttendanceRecord> submit(String studentId, String deviceId, LocalDateTime timestamp) {
+        AttendanceRecord record = new AttendanceRecord(studentId, deviceId);
+        record.setTimestamp(timestamp);
+
+        PendingScan scan = new PendingScan(record);
+        if (!running || !queue.offer(scan)) {
+            scansRejected.increment();
+            throw new RejectedExecutionException("Attendance ingest queue is full");
+        }
+        // Recheck as ThreadPoolExecutor does: if shutdown began during the offer, the writer may
+        // already have exited. Whoever removes the scan first owns it: us, the writer or shutdown().
+        if (!running && queue.remove(scan)) {
+            scansRejected.increment();
+            throw new RejectedExecutionException("Attendance batch writer is shutting down");
+        }
+        return scan.result;
+    }
+
+    // Blocking variant used by the servlet; unwraps the writer's SQLException
+    public AttendanceRecord log(String studentId, String deviceId, LocalDateTime timestamp) throws SQLException {
+        CompletableFuture<AttendanceRecord> result = submit(studentId, deviceId, timestamp);
+
+        try {
+            return result.get(submitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for attendance batch", e);
+        } catch (TimeoutException e) {
+            throw new SQLException("Timed out waiting for attendance batch", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Failed to log attendance", e.getCause());
+        }
+    }
+
+    public int getQueueDepth() { return queue.size(); }
+    public long getScansWritten() { return scansWritten.sum(); }
+    public long getBatchesWritten() { return batchesWritten.sum(); }
+    public long getScansRejected() { return scansRejected.sum(); }
+
+    private void runWriter() {
+        List<PendingScan> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingScan first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                // Linger briefly so scans arriving together share one INSERT
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingScan next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Not used for shutdown; flush what we have and keep going until running is cleared
+            }
+
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingScan> batch) {
+        List<AttendanceRecord> records = new ArrayList<>(batch.size());
+        for (PendingScan scan : batch) {
+            records.add(scan.record);
+        }
+
+        try {
+            attendanceDAO.logAttendanceBatch(records);
+            scansWritten.add(records.size());
+            batchesWritten.increment();
+
+            for (PendingScan scan : batch) {
+                scan.result.complete(scan.record);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to write attendance batch of {} scans", batch.size(), e);
+            for (PendingScan scan : batch) {
+                scan.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static class PendingScan {
+        private final AttendanceRecord record;
+        private final CompletableFuture<AttendanceRecord> result = new CompletableFuture<>();
+
+        PendingScan(AttendanceRecord record) {
+            this.record = record;
+        }
+    }
+}
@@ -1,164 +1,506 @@
 package com.mlvisiotrack.dao;
 
 import com.mlvisiotrack.config.DatabaseConfig;
+import com.mlvisiotrack.config.Workload;
+import com.mlvisiotrack.metrics.Metrics;
+import com.mlvisiotrack.metrics.MethodMetrics;
+import com.mlvisiotrack.models.AttendanceCursor;
+import com.mlvisiotrack.models.AttendancePage;
 import com.mlvisiotrack.models.AttendanceRecord;
+import com.mlvisiotrack.models.DailyAttendance;
+import com.mlvisiotrack.models.Projection;
+import com.mlvisiotrack.utils.DataVersion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class AttendanceDAO {
     private static final Logger logger = LoggerFactory.getLogger(AttendanceDAO.class);
     
+    private static final MethodMetrics LOG_ATTENDANCE = Metrics.dao("AttendanceDAO", "logAttendance");
+    private static final MethodMetrics LOG_ATTENDANCE_BATCH = Metrics.dao("AttendanceDAO", "logAttendanceBatch");
+    private static final MethodMetrics LOG_ATTENDANCE_BULK = Metrics.dao("AttendanceDAO", "logAttendanceBulk");
+    private static final MethodMetrics GET_BY_STUDENT = Metrics.dao("AttendanceDAO", "getAttendanceByStudent");
+    private static final MethodMetrics GET_BY_DATE = Metrics.dao("AttendanceDAO", "getAttendanceByDate");
+    private static final MethodMetrics GET_ALL = Metrics.dao("AttendanceDAO", "getAllAttendance");
+    private static final MethodMetrics STREAM_BY_DATE = Metrics.dao("AttendanceDAO", "streamAttendanceByDate");
+    private static final MethodMetrics STREAM_ALL = Metrics.dao("AttendanceDAO", "streamAllAttendance");
+    private static final MethodMetrics EXPORT_ALL = Metrics.dao("AttendanceDAO", "exportAllAttendance");
+    private static final MethodMetrics GET_STATS = Metrics.dao("AttendanceDAO", "getAttendanceStats");
+    private static final MethodMetrics GET_DAILY = Metrics.dao("AttendanceDAO", "getDailyAttendance");
+    private static final MethodMetrics REBUILD_ROLLUP = Metrics.dao("AttendanceDAO", "rebuildDailyRollup");
+    private static final MethodMetrics DELETE = Metrics.dao("AttendanceDAO", "deleteAttendance");
+    
+    // Receives rows one at a time from the streaming reads
+    @FunctionalInterface
+    public interface RecordHandler {
+        void accept(AttendanceRecord record) throws IOException;
+    }
+    
+    // Receives export rows whose timestamp is left as text instead of a LocalDateTime
+    @FunctionalInterface
+    public interface ExportHandler {
+        void accept(AttendanceRecord record, String timestamp) throws IOException;
+    }
+    
     public AttendanceRecord logAttendance(String studentId, String deviceId) throws SQLException {
+        return logAttendance(studentId, deviceId, LocalDateTime.now());
+    }
+    
+    // Stores a scan with the time it was taken, which may be device-supplied
+    public AttendanceRecord logAttendance(String studentId, String deviceId, LocalDateTime timestamp) throws SQLException {
         String query = """
             INSERT INTO attendance (student_id, device_id, timestamp) 
             VALUES (?, ?, ?)
         """;
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            
-            LocalDateTime now = LocalDateTime.now();
-            stmt.setString(1, studentId);
-            stmt.setString(2, deviceId);
-            stmt.setTimestamp(3, Timestamp.valueOf(now));
+        try (MethodMetrics.Call call = LOG_ATTENDANCE.start();
+             Connection conn = DatabaseConfig.getWriteConnection(Workload.INGEST)) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
             
-            int rowsAffected = stmt.executeUpdate();
+            try (PreparedStatement stmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setString(1, studentId);
+                stmt.setString(2, deviceId);
+                stmt.setTimestamp(3, Timestamp.valueOf(timestamp));
+                
+                int rowsAffected = stmt.executeUpdate();
+                
+                if (rowsAffected > 0) {
+                    try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            AttendanceRecord record = new AttendanceRecord(studentId, deviceId);
+                            record.setId(generatedKeys.getLong(1));
+                            record.setTimestamp(timestamp);
+                            
+                            AttendanceRollup.apply(conn, List.of(record));
+                            conn.commit();
+                            DataVersion.attendanceChanged(List.of(timestamp.toLocalDate()));
+                            
+                            logger.info("Attendance logged for student: {} from device: {}", studentId, deviceId);
+                            call.rows(1);
+                            return record;
+                        }
+                    }
+                }
+                
+                conn.rollback();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+        
+        throw new SQLException("Failed to log attendance");
+    }
+    
+    /**
+     * Inserts a group of scans as one JDBC batch, which the driver rewrites into
+     * a multi-row INSERT, and fills in the generated id of each record. Records
+     * must already carry their timestamp.
+     */
+    public List<AttendanceRecord> logAttendanceBatch(List<AttendanceRecord> records) throws SQLException {
+        if (records.isEmpty()) {
+            return records;
+        }
+        
+        try (MethodMetrics.Call call = LOG_ATTENDANCE_BATCH.start();
+             Connection conn = DatabaseConfig.getWriteConnection(Workload.INGEST)) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
             
-            if (rowsAffected > 0) {
+            // One statement text for every batch size; a VALUES list per size would defeat the statement cache
+            try (PreparedStatement stmt = conn.prepareStatement(SqlCatalog.ATTENDANCE_INSERT, Statement.RETURN_GENERATED_KEYS)) {
+                for (AttendanceRecord record : records) {
+                    stmt.setString(1, record.getStudentId());
+                    stmt.setString(2, record.getDeviceId());
+                    stmt.setTimestamp(3, Timestamp.valueOf(record.getTimestamp()));
+                    stmt.addBatch();
+                }
+                
+                stmt.executeBatch();
+                
                 try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        AttendanceRecord record = new AttendanceRecord(studentId, deviceId);
+                    for (AttendanceRecord record : records) {
+                        if (!generatedKeys.next()) {
+                            throw new SQLException("Missing generated key for batched attendance insert");
+                        }
                         record.setId(generatedKeys.getLong(1));
-                        record.setTimestamp(now);
-                        
-                        logger.info("Attendance logged for student: {} from device: {}", studentId, deviceId);
-                        return record;
                     }
                 }
+                
+                AttendanceRollup.apply(conn, records);
+                conn.commit();
+                publishChange(records);
+                call.rows(records.size());
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
             }
         }
         
-        throw new SQLException("Failed to log attendance");
+        logger.debug("Attendance batch of {} scans written", records.size());
+        return records;
     }
     
-    public List<AttendanceRecord> getAttendanceByStudent(String studentId, LocalDate startDate, LocalDate endDate) throws SQLException {
-        StringBuilder queryBuilder = new StringBuilder("""
-            SELECT a.*, u.name as student_name, u.registration_number, u.department 
-            FROM attendance a 
-            LEFT JOIN users u ON a.student_id = u.id 
-            WHERE a.student_id = ?
-        """);
+    /**
+     * Writes replayed scans inside one transaction, as JDBC batches of at most
+     * chunkSize rows. A failure rolls back every batch, so a device can resend
+     * its whole buffer. Generated ids are not read back; the number of stored
+     * rows is returned.
+     */
+    public int logAttendanceBulk(List<AttendanceRecord> records, int chunkSize) throws SQLException {
+        if (records.isEmpty()) {
+            return 0;
+        }
         
+        try (MethodMetrics.Call call = LOG_ATTENDANCE_BULK.start();
+             Connection conn = DatabaseConfig.getWriteConnection(Workload.INGEST)) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            
+            try (PreparedStatement stmt = conn.prepareStatement(SqlCatalog.ATTENDANCE_INSERT)) {
+                int stored = 0;
+                int pending = 0;
+                for (AttendanceRecord record : records) {
+                    stmt.setString(1, record.getStudentId());
+                    stmt.setString(2, record.getDeviceId());
+                    stmt.setTimestamp(3, Timestamp.valueOf(record.getTimestamp()));
+                    stmt.addBatch();
+                    
+                    if (++pending == chunkSize) {
+                        stored += executeBulk(stmt);
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    stored += executeBulk(stmt);
+                }
+                
+                AttendanceRollup.apply(conn, records);
+                conn.commit();
+                publishChange(records);
+                call.rows(stored);
+                
+                logger.info("Bulk attendance replay stored {} scans", stored);
+                return stored;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+    
+    private static int executeBulk(PreparedStatement stmt) throws SQLException {
+        int stored = 0;
+        for (int result : stmt.executeBatch()) {
+            // SUCCESS_NO_INFO still means the row was written
+            stored += result == Statement.SUCCESS_NO_INFO ? 1 : result;
+        }
+        return stored;
+    }
+    
+    public AttendancePage getAttendanceByStudent(String studentId, LocalDate startDate, LocalDate endDate,
+                                                 AttendanceCursor after, int limit, Projection projection) throws SQLException {
         List<Object> parameters = new ArrayList<>();
         parameters.add(studentId);
         
-        if (startDate != null) {
-            queryBuilder.append(" AND DATE(a.timestamp) >= ?");
-            parameters.add(Date.valueOf(startDate));
+        int filters = TimestampRange.bind(parameters, startDate, endDate);
+        
+        SqlCatalog.Shape shape = projection.usesSummaryColumns()
+            ? SqlCatalog.ATTENDANCE_PAGE_BY_STUDENT_SUMMARY : SqlCatalog.ATTENDANCE_PAGE_BY_STUDENT;
+        return fetchPage(GET_BY_STUDENT, shape, filters, parameters, after, limit);
+    }
+    
+    public AttendancePage getAttendanceByDate(LocalDate date, String department,
+                                              AttendanceCursor after, int limit, Projection projection) throws SQLException {
+        List<Object> parameters = new ArrayList<>();
+        int filters = TimestampRange.bindDay(parameters, date);
+        
+        if (department != null && !department.isEmpty()) {
+            filters |= SqlCatalog.DEPARTMENT;
+            parameters.add(department);
         }
         
-        if (endDate != null) {
-            queryBuilder.append(" AND DATE(a.timestamp) <= ?");
-            parameters.add(Date.valueOf(endDate));
+        return fetchPage(GET_BY_DATE, pageShape(projection), filters, parameters, after, limit);
+    }
+    
+    public AttendancePage getAllAttendance(LocalDate startDate, LocalDate endDate, String department,
+                                           AttendanceCursor after, int limit, Projection projection) throws SQLException {
+        List<Object> parameters = new ArrayList<>();
+        
+        int filters = TimestampRange.bind(parameters, startDate, endDate);
+        
+        if (department != null && !department.isEmpty()) {
+            filters |= SqlCatalog.DEPARTMENT;
+            parameters.add(department);
         }
         
-        queryBuilder.append(" ORDER BY a.timestamp DESC");
+        return fetchPage(GET_ALL, pageShape(projection), filters, parameters, after, limit);
+    }
+    
+    public int streamAttendanceByDate(LocalDate date, String department, Projection projection, RecordHandler handler) 
+            throws SQLException, IOException {
+        List<Object> parameters = new ArrayList<>();
+        int filters = TimestampRange.bindDay(parameters, date);
+        
+        if (department != null && !department.isEmpty()) {
+            filters |= SqlCatalog.DEPARTMENT;
+            parameters.add(department);
+        }
         
-        List<AttendanceRecord> records = new ArrayList<>();
+        return streamQuery(STREAM_BY_DATE, streamShape(projection).sql(filters), parameters, handler);
+    }
+    
+    public int streamAllAttendance(LocalDate startDate, LocalDate endDate, String department, Projection projection,
+                                   RecordHandler handler) 
+            throws SQLException, IOException {
+        List<Object> parameters = new ArrayList<>();
+        
+        int filters = TimestampRange.bind(parameters, startDate, endDate);
+        
+        if (department != null && !department.isEmpty()) {
+            filters |= SqlCatalog.DEPARTMENT;
+            parameters.add(department);
+        }
+        
+        return streamQuery(STREAM_ALL, streamShape(projection).sql(filters), parameters, handler);
+    }
+    
+    /**
+     * Same rows as streamAllAttendance for CSV export. Timestamps are passed as
+     * the column text (ISO, e.g. 2024-03-11T08:00:00) and never converted to
+     * LocalDateTime; the records' own timestamp is null.
+     */
+    public int exportAllAttendance(LocalDate startDate, LocalDate endDate, String department, ExportHandler handler) 
+            throws SQLException, IOException {
+        List<Object> parameters = new ArrayList<>();
+        
+        int filters = TimestampRange.bind(parameters, startDate, endDate);
+        
+        if (department != null && !department.isEmpty()) {
+            filters |= SqlCatalog.DEPARTMENT;
+            parameters.add(department);
+        }
+        
+        return streamQuery(EXPORT_ALL, SqlCatalog.ATTENDANCE_STREAM.sql(filters), parameters, false, handler);
+    }
+    
+    private int streamQuery(MethodMetrics metrics, String query, List<Object> parameters, RecordHandler handler) 
+            throws SQLException, IOException {
+        return streamQuery(metrics, query, parameters, true, (record, timestamp) -> handler.accept(record));
+    }
+    
+    // Forward-only streaming read: rows are handed off as they arrive and never collected
+    private int streamQuery(MethodMetrics metrics, String query, List<Object> parameters, boolean timestamps,
+                            ExportHandler handler) throws SQLException, IOException {
+        int rows = 0;
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(queryBuilder.toString())) {
+        try (MethodMetrics.Call call = metrics.start();
+             Connection conn = DatabaseConfig.getReadConnection(Workload.REPORTING);
+             PreparedStatement stmt = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            // Connector/J's streaming mode: rows are read off the socket as MySQL sends them, with
+            // no server-side cursor (which MySQL fills completely before the first fetch). The
+            // connection is busy until the result is closed, which is fine for one statement.
+            stmt.setFetchSize(Integer.MIN_VALUE);
             
             for (int i = 0; i < parameters.size(); i++) {
                 stmt.setObject(i + 1, parameters.get(i));
             }
             
             try (ResultSet rs = stmt.executeQuery()) {
+                AttendanceRowMapper mapper = AttendanceRowMapper.forQuery(query, rs);
                 while (rs.next()) {
-                    records.add(mapResultSetToRecord(rs));
+                    handler.accept(mapper.map(rs, timestamps), timestamps ? null : mapper.timestampText(rs));
+                    rows++;
                 }
             }
+            call.rows(rows);
         }
         
-        return records;
+        return rows;
     }
     
-    public List<AttendanceRecord> getAttendanceByDate(LocalDate date, String department) throws SQLException {
-        StringBuilder queryBuilder = new StringBuilder("""
-            SELECT a.*, u.name as student_name, u.registration_number, u.department 
-            FROM attendance a 
-            LEFT JOIN users u ON a.student_id = u.id 
-            WHERE DATE(a.timestamp) = ?
-        """);
-        
-        List<Object> parameters = new ArrayList<>();
-        parameters.add(Date.valueOf(date));
-        
-        if (department != null && !department.isEmpty()) {
-            queryBuilder.append(" AND u.department = ?");
-            parameters.add(department);
+    private static SqlCatalog.Shape pageShape(Projection projection) {
+        return projection.usesSummaryColumns() ? SqlCatalog.ATTENDANCE_PAGE_SUMMARY : SqlCatalog.ATTENDANCE_PAGE;
+    }
+    
+    private static SqlCatalog.Shape streamShape(Projection projection) {
+        return projection.usesSummaryColumns() ? SqlCatalog.ATTENDANCE_STREAM_SUMMARY : SqlCatalog.ATTENDANCE_STREAM;
+    }
+    
+    // Seeks past the cursor on (timestamp, id) and reads one extra row to detect a further page
+    private AttendancePage fetchPage(MethodMetrics metrics, SqlCatalog.Shape shape, int filters, List<Object> parameters,
+                                     AttendanceCursor after, int limit) throws SQLException {
+        if (after != null) {
+            filters |= SqlCatalog.AFTER;
+            Timestamp afterTimestamp = Timestamp.valueOf(after.getTimestamp());
+            parameters.add(afterTimestamp);
+            parameters.add(afterTimestamp);
+            parameters.add(after.getId());
         }
         
-        queryBuilder.append(" ORDER BY a.timestamp DESC");
+        parameters.add(limit + 1);
         
-        List<AttendanceRecord> records = new ArrayList<>();
+        String query = shape.sql(filters);
+        List<AttendanceRecord> records = new ArrayList<>(limit + 1);
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(queryBuilder.toString())) {
+        try (MethodMetrics.Call call = metrics.start();
+             Connection conn = DatabaseConfig.getReadConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(query)) {
             
             for (int i = 0; i < parameters.size(); i++) {
                 stmt.setObject(i + 1, parameters.get(i));
             }
             
             try (ResultSet rs = stmt.executeQuery()) {
+                AttendanceRowMapper mapper = AttendanceRowMapper.forQuery(query, rs);
                 while (rs.next()) {
-                    records.add(mapResultSetToRecord(rs));
+                    records.add(mapper.map(rs));
                 }
             }
+            call.rows(records.size());
         }
         
-        return records;
+        AttendanceCursor next = null;
+        if (records.size() > limit) {
+            records.remove(limit);
+            AttendanceRecord last = records.get(limit - 1);
+            next = new AttendanceCursor(last.getTimestamp(), last.getId());
+        }
+        
+        return new AttendancePage(records, next);
     }
     
-    public List<AttendanceRecord> getAllAttendance(LocalDate startDate, LocalDate endDate, String department) throws SQLException {
-        StringBuilder queryBuilder = new StringBuilder("""
-            SELECT a.*, u.name as student_name, u.registration_number, u.department 
-            FROM attendance a 
-            LEFT JOIN users u ON a.student_id = u.id 
-            WHERE 1=1
-        """);
+    /**
+     * Attendance statistics computed in a single aggregate query. Expected days
+     * are the calendar days on which the student has at least one scheduled
+     * session of an actively enrolled course; scan days come from the daily
+     * rollup. With a timetable, present days are the expected days with a scan,
+     * so presentDays + absentDays = totalDays, and scans on other days are
+     * reported as unscheduledScanDays. Missing bounds default to the student's
+     * first enrollment and today; an empty range yields zeros.
+     */
+    public Map<String, Object> getAttendanceStats(String studentId, LocalDate startDate, LocalDate endDate) throws SQLException {
+        String query = """
+            WITH RECURSIVE bounds AS (
+                SELECT COALESCE(?, (SELECT MIN(e.enrollment_date) FROM enrollments e WHERE e.student_id = ?), CURDATE()) AS start_day,
+                       COALESCE(?, CURDATE()) AS end_day
+            ),
+            calendar (day) AS (
+                SELECT start_day FROM bounds WHERE start_day <= end_day
+                UNION ALL
+                SELECT c.day + INTERVAL 1 DAY FROM calendar c, bounds b WHERE c.day < b.end_day
+            ),
+            expected AS (
+                SELECT DISTINCT c.day 
+                FROM calendar c 
+                JOIN schedules s ON s.is_active = TRUE 
+                    AND s.day_of_week = ELT(DAYOFWEEK(c.day), 'Sunday', 'Monday', 'Tuesday', 'Wednesday', 'Thursday', 'Friday', 'Saturday') 
+                    AND c.day >= s.start_date AND (s.end_date IS NULL OR c.day <= s.end_date) 
+                JOIN enrollments e ON e.course_id = s.course_id AND e.status = 'active' AND c.day >= e.enrollment_date 
+                WHERE e.student_id = ?
+            ),
+            scanned AS (
+                SELECT r.scan_date AS day, SUM(r.scan_count) AS scans 
+                FROM attendance_daily_rollup r, bounds b 
+                WHERE r.student_id = ? AND r.scan_date >= b.start_day AND r.scan_date <= b.end_day 
+                GROUP BY r.scan_date
+            )
+            SELECT /*+ SET_VAR(cte_max_recursion_depth = 100000) */ 
+                (SELECT COUNT(*) FROM expected) AS expected_days, 
+                (SELECT COUNT(*) FROM scanned) AS scan_days, 
+                (SELECT COUNT(*) FROM expected x JOIN scanned p ON p.day = x.day) AS attended_days, 
+                (SELECT COALESCE(SUM(p.scans), 0) FROM scanned p) AS total_scans
+        """;
         
-        List<Object> parameters = new ArrayList<>();
+        int expectedDays = 0;
+        int scanDays = 0;
+        int attendedDays = 0;
+        long totalScans = 0;
         
-        if (startDate != null) {
-            queryBuilder.append(" AND DATE(a.timestamp) >= ?");
-            parameters.add(Date.valueOf(startDate));
+        try (MethodMetrics.Call call = GET_STATS.start();
+             Connection conn = DatabaseConfig.getReadConnection(Workload.REPORTING);
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            
+            stmt.setObject(1, startDate != null ? Date.valueOf(startDate) : null);
+            stmt.setString(2, studentId);
+            stmt.setObject(3, endDate != null ? Date.valueOf(endDate) : null);
+            stmt.setString(4, studentId);
+            stmt.setString(5, studentId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    expectedDays = rs.getInt("expected_days");
+                    scanDays = rs.getInt("scan_days");
+                    attendedDays = rs.getInt("attended_days");
+                    totalScans = rs.getLong("total_scans");
+                }
+            }
+            call.rows(1);
         }
         
-        if (endDate != null) {
-            queryBuilder.append(" AND DATE(a.timestamp) <= ?");
-            parameters.add(Date.valueOf(endDate));
+        Map<String, Object> stats = new HashMap<>();
+        
+        int totalDays;
+        int presentDays;
+        double attendancePercentage;
+        if (expectedDays > 0) {
+            totalDays = expectedDays;
+            presentDays = attendedDays;
+            attendancePercentage = Math.round(attendedDays * 10000.0 / expectedDays) / 100.0;
+        } else {
+            // Without a timetable only days with a scan are known, and all of them count as present
+            totalDays = scanDays;
+            presentDays = scanDays;
+            attendancePercentage = scanDays > 0 ? 100.0 : 0.0;
         }
         
+        stats.put("totalDays", totalDays);
+        stats.put("presentDays", presentDays);
+        stats.put("absentDays", totalDays - presentDays);
+        stats.put("unscheduledScanDays", scanDays - presentDays);
+        stats.put("totalScans", totalScans);
+        stats.put("attendancePercentage", attendancePercentage);
+        
+        return stats;
+    }
+    
+    // Per-student, per-day attendance report built from the daily rollup
+    public List<DailyAttendance> getDailyAttendance(LocalDate startDate, LocalDate endDate, String department) throws SQLException {
+        List<Object> parameters = new ArrayList<>();
+        int filters = bindDayRange(parameters, startDate, endDate);
+        
         if (department != null && !department.isEmpty()) {
-            queryBuilder.append(" AND u.department = ?");
+            filters |= SqlCatalog.DEPARTMENT;
             parameters.add(department);
         }
         
-        queryBuilder.append(" ORDER BY a.timestamp DESC");
-        
-        List<AttendanceRecord> records = new ArrayList<>();
+        // Rows arrive grouped by (day, student); fold the per-device rows into one entry
+        List<DailyAttendance> days = new ArrayList<>();
+        DailyAttendance current = null;
+        int rowCount = 0;
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(queryBuilder.toString())) {
+        try (MethodMetrics.Call call = GET_DAILY.start();
+             Connection conn = DatabaseConfig.getReadConnection(Workload.REPORTING);
+             PreparedStatement stmt = conn.prepareStatement(SqlCatalog.DAILY_ATTENDANCE.sql(filters))) {
             
             for (int i = 0; i < parameters.size(); i++) {
                 stmt.setObject(i + 1, parameters.get(i));
@@ -166,58 +508,144 @@ public class AttendanceDAO {
             
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    records.add(mapResultSetToRecord(rs));
+                    String studentId = rs.getString("student_id");
+                    LocalDate date = rs.getDate("scan_date").toLocalDate();
+                    
+                    if (current == null || !current.getStudentId().equals(studentId) || !current.getDate().equals(date)) {
+                        current = new DailyAttendance(studentId, date);
+                        current.setStudentName(rs.getString("student_name"));
+                        current.setRegistrationNumber(rs.getString("registration_number"));
+                        current.setDepartment(rs.getString("department"));
+                        days.add(current);
+                    }
+                    
+                    current.addDevice(rs.getString("device_id"), 
+                                      rs.getTimestamp("first_scan").toLocalDateTime(), 
+                                      rs.getTimestamp("last_scan").toLocalDateTime(), 
+                                      rs.getInt("scan_count"));
+                    rowCount++;
                 }
             }
+            call.rows(rowCount);
         }
         
-        return records;
+        return days;
     }
     
-    public Map<String, Object> getAttendanceStats(String studentId, LocalDate startDate, LocalDate endDate) throws SQLException {
-        List<AttendanceRecord> records = getAttendanceByStudent(studentId, startDate, endDate);
-        
-        Map<String, Object> stats = new HashMap<>();
-        int totalDays = records.size();
-        int presentDays = totalDays; // All records in attendance table are "present"
-        
-        stats.put("totalDays", totalDays);
-        stats.put("presentDays", presentDays);
-        stats.put("absentDays", 0); // We don't track absent days in this simple model
-        
-        double attendancePercentage = totalDays > 0 ? 100.0 : 0.0; // 100% for logged attendance
-        stats.put("attendancePercentage", attendancePercentage);
-        
-        return stats;
+    /**
+     * Recomputes the daily rollup from raw scans between the given days
+     * (inclusive), one transaction per day. Null bounds default to the oldest
+     * and newest scan on record. Returns the number of rollup rows written.
+     */
+    public int rebuildDailyRollup(LocalDate startDate, LocalDate endDate) throws SQLException {
+        try (MethodMetrics.Call call = REBUILD_ROLLUP.start();
+             Connection conn = DatabaseConfig.getWriteConnection(Workload.REPORTING)) {
+            if (startDate == null || endDate == null) {
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT MIN(timestamp), MAX(timestamp) FROM attendance")) {
+                    if (!rs.next() || rs.getTimestamp(1) == null) {
+                        call.rows(0);
+                        return 0;
+                    }
+                    if (startDate == null) {
+                        startDate = rs.getTimestamp(1).toLocalDateTime().toLocalDate();
+                    }
+                    if (endDate == null) {
+                        endDate = rs.getTimestamp(2).toLocalDateTime().toLocalDate();
+                    }
+                }
+            }
+            
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            int rows = 0;
+            
+            try {
+                for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+                    rows += AttendanceRollup.rebuildDay(conn, day);
+                    conn.commit();
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            
+            logger.info("Daily attendance rollup rebuilt from {} to {} ({} rows)", startDate, endDate, rows);
+            call.rows(rows);
+            return rows;
+        }
     }
     
     public boolean deleteAttendance(Long id) throws SQLException {
-        String query = "DELETE FROM attendance WHERE id = ?";
-        
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(query)) {
+        try (MethodMetrics.Call call = DELETE.start();
+             Connection conn = DatabaseConfig.getWriteConnection(Workload.INTERACTIVE)) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
             
-            stmt.setLong(1, id);
-            return stmt.executeUpdate() > 0;
+            try {
+                String studentId;
+                String deviceId;
+                LocalDate day;
+                
+                try (PreparedStatement select = conn.prepareStatement(
+                        "SELECT student_id, device_id, timestamp FROM attendance WHERE id = ? FOR UPDATE")) {
+                    select.setLong(1, id);
+                    try (ResultSet rs = select.executeQuery()) {
+                        if (!rs.next()) {
+                            conn.rollback();
+                            call.rows(0);
+                            return false;
+                        }
+                        studentId = rs.getString("student_id");
+                        deviceId = rs.getString("device_id");
+                        day = rs.getTimestamp("timestamp").toLocalDateTime().toLocalDate();
+                    }
+                }
+                
+                try (PreparedStatement delete = conn.prepareStatement("DELETE FROM attendance WHERE id = ?")) {
+                    delete.setLong(1, id);
+                    delete.executeUpdate();
+                }
+                
+                AttendanceRollup.recompute(conn, studentId, day, deviceId);
+                conn.commit();
+                DataVersion.attendanceChanged(List.of(day));
+                call.rows(1);
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
         }
     }
     
-    private AttendanceRecord mapResultSetToRecord(ResultSet rs) throws SQLException {
-        AttendanceRecord record = new AttendanceRecord();
-        record.setId(rs.getLong("id"));
-        record.setStudentId(rs.getString("student_id"));
-        record.setDeviceId(rs.getString("device_id"));
+    // Invalidates the ETags of every date the committed records fall on
+    private void publishChange(List<AttendanceRecord> records) {
+        Set<LocalDate> days = new HashSet<>();
+        for (AttendanceRecord record : records) {
+            days.add(record.getTimestamp().toLocalDate());
+        }
+        DataVersion.attendanceChanged(days);
+    }
+    
+    // Inclusive bounds on a DATE column, which is already index-friendly as-is
+    private int bindDayRange(List<Object> parameters, LocalDate startDate, LocalDate endDate) {
+        int filters = 0;
         
-        Timestamp timestamp = rs.getTimestamp("timestamp");
-        if (timestamp != null) {
-            record.setTimestamp(timestamp.toLocalDateTime());
+        if (startDate != null) {
+            filters |= SqlCatalog.FROM;
+            parameters.add(Date.valueOf(startDate));
         }
         
-        record.setStudentName(rs.getString("student_name"));
-        record.setRegistrationNumber(rs.getString("registration_number"));
-        record.setDepartment(rs.getString("department"));
-        record.setStatus("Present"); // Default status for logged attendance
+        if (endDate != null) {
+            filters |= SqlCatalog.TO;
+            parameters.add(Date.valueOf(endDate));
+        }
         
-        return record;
+        return filters;
     }
 }
\ No newline at end of file
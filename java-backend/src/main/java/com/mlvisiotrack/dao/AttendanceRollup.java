@@ -0,0 +1,126 @@
+package com.mlvisiotrack.dao;
+
+import com.mlvisiotrack.models.AttendanceRecord;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains attendance_daily_rollup, one row per (student, day, device) with the
+ * first and last scan time and the number of scans. Every method runs on the
+ * caller's connection so the rollup changes commit together with the raw rows.
+ */
+final class AttendanceRollup {
+
+    // Row alias form (MySQL 8.0.19+); VALUES(col) in the update list is deprecated
+    private static final String UPSERT = """
+        INSERT INTO attendance_daily_rollup (student_id, scan_date, device_id, first_scan, last_scan, scan_count)
+        VALUES (?, ?, ?, ?, ?, ?) AS new
+        ON DUPLICATE KEY UPDATE
+            first_scan = LEAST(first_scan, new.first_scan),
+            last_scan = GREATEST(last_scan, new.last_scan),
+            scan_count = scan_count + new.scan_count
+    """;
+
+    private static final String RECOMPUTE_INSERT = """
+        INSERT INTO attendance_daily_rollup (student_id, scan_date, device_id, first_scan, last_scan, scan_count)
+        SELECT student_id, DATE(timestamp), device_id, MIN(timestamp), MAX(timestamp), COUNT(*)
+        FROM attendance
+        WHERE timestamp >= ? AND timestamp < ?
+    """;
+
+    private AttendanceRollup() {}
+
+    // Folds newly inserted scans into the rollup
+    static void apply(Connection conn, List<AttendanceRecord> records) throws SQLException {
+        // Pre-aggregate so each key is touched once, in sorted order to avoid lock-order deadlocks
+        Map<String, Delta> deltas = new TreeMap<>();
+        for (AttendanceRecord record : records) {
+            LocalDate day = record.getTimestamp().toLocalDate();
+            String key = record.getStudentId() + '\u0000' + day + '\u0000' + record.getDeviceId();
+            deltas.computeIfAbsent(key, k -> new Delta(record.getStudentId(), day, record.getDeviceId()))
+                  .add(Timestamp.valueOf(record.getTimestamp()));
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT)) {
+            for (Delta delta : deltas.values()) {
+                stmt.setString(1, delta.studentId);
+                stmt.setDate(2, Date.valueOf(delta.day));
+                stmt.setString(3, delta.deviceId);
+                stmt.setTimestamp(4, delta.firstScan);
+                stmt.setTimestamp(5, delta.lastScan);
+                stmt.setInt(6, delta.scanCount);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // Rebuilds one (student, day, device) row from raw scans, e.g. after a delete
+    static void recompute(Connection conn, String studentId, LocalDate day, String deviceId) throws SQLException {
+        try (PreparedStatement delete = conn.prepareStatement(
+                "DELETE FROM attendance_daily_rollup WHERE student_id = ? AND scan_date = ? AND device_id = ?")) {
+            delete.setString(1, studentId);
+            delete.setDate(2, Date.valueOf(day));
+            delete.setString(3, deviceId);
+            delete.executeUpdate();
+        }
+
+        try (PreparedStatement insert = conn.prepareStatement(
+                RECOMPUTE_INSERT + " AND student_id = ? AND device_id = ? GROUP BY student_id, DATE(timestamp), device_id")) {
+            insert.setTimestamp(1, Timestamp.valueOf(day.atStartOfDay()));
+            insert.setTimestamp(2, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+            insert.setString(3, studentId);
+            insert.setString(4, deviceId);
+            insert.executeUpdate();
+        }
+    }
+
+    // Replaces every rollup row for one day; returns the number of rows written
+    static int rebuildDay(Connection conn, LocalDate day) throws SQLException {
+        try (PreparedStatement delete = conn.prepareStatement(
+                "DELETE FROM attendance_daily_rollup WHERE scan_date = ?")) {
+            delete.setDate(1, Date.valueOf(day));
+            delete.executeUpdate();
+        }
+
+        try (PreparedStatement insert = conn.prepareStatement(
+                RECOMPUTE_INSERT + " GROUP BY student_id, DATE(timestamp), device_id")) {
+            insert.setTimestamp(1, Timestamp.valueOf(day.atStartOfDay()));
+            insert.setTimestamp(2, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+            return insert.executeUpdate();
+        }
+    }
+
+    private static class Delta {
+        private final String studentId;
+        private final LocalDate day;
+        private final String deviceId;
+        private Timestamp firstScan;
+        private Timestamp lastScan;
+        private int scanCount;
+
+        Delta(String studentId, LocalDate day, String deviceId) {
+            this.studentId = studentId;
+            this.day = day;
+            this.deviceId = deviceId;
+        }
+
+        void add(Timestamp scan) {
+            if (firstScan == null || scan.before(firstScan)) {
+                firstScan = scan;
+            }
+            if (lastScan == null || scan.after(lastScan)) {
+                lastScan = scan;
+            }
+            scanCount++;
+        }
+    }
+}
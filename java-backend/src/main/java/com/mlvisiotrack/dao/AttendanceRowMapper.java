@@ -0,0 +1,83 @@
+package com.mlvisiotrack.dao;
+
+import com.mlvisiotrack.models.AttendanceRecord;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps attendance listing rows by column index. Indexes are resolved from the
+ * first result of each statement text and cached, so later rows and calls
+ * skip the per-column label lookup.
+ */
+final class AttendanceRowMapper {
+    private static final Map<String, AttendanceRowMapper> BY_QUERY = new ConcurrentHashMap<>();
+
+    private final int id;
+    private final int studentId;
+    private final int deviceId;
+    private final int timestamp;
+    private final int studentName;
+    private final int registrationNumber;
+    private final int department;
+
+    // Package-private for the row mapper benchmarks
+    AttendanceRowMapper(ResultSetMetaData metaData) throws SQLException {
+        ColumnLabels columns = new ColumnLabels(metaData);
+        id = columns.indexOf("id");
+        studentId = columns.indexOf("student_id");
+        deviceId = columns.indexOf("device_id");
+        timestamp = columns.indexOf("timestamp");
+        // Absent from the summary projection, which skips the users join
+        studentName = columns.optionalIndexOf("student_name");
+        registrationNumber = columns.optionalIndexOf("registration_number");
+        department = columns.optionalIndexOf("department");
+    }
+
+    static AttendanceRowMapper forQuery(String query, ResultSet rs) throws SQLException {
+        AttendanceRowMapper mapper = BY_QUERY.get(query);
+        if (mapper == null) {
+            mapper = new AttendanceRowMapper(rs.getMetaData());
+            BY_QUERY.putIfAbsent(query, mapper);
+        }
+        return mapper;
+    }
+
+    AttendanceRecord map(ResultSet rs) throws SQLException {
+        return map(rs, true);
+    }
+
+    // Without timestamps the record's timestamp stays null; read it with timestampText
+    AttendanceRecord map(ResultSet rs, boolean timestamps) throws SQLException {
+        AttendanceRecord record = new AttendanceRecord();
+        record.setId(rs.getLong(id));
+        record.setStudentId(rs.getString(studentId));
+        record.setDeviceId(rs.getString(deviceId));
+
+        if (timestamps) {
+            Timestamp value = rs.getTimestamp(timestamp);
+            if (value != null) {
+                record.setTimestamp(value.toLocalDateTime());
+            }
+        }
+
+        if (studentName != 0) {
+            record.setStudentName(rs.getString(studentName));
+            record.setRegistrationNumber(rs.getString(registrationNumber));
+            record.setDepartment(rs.getString(department));
+        }
+        record.setStatus("Present"); // Default status for logged attendance
+
+        return record;
+    }
+
+    // The column as MySQL sends it, with an ISO 'T' separator (e.g. 2024-03-11T08:00:00)
+    String timestampText(ResultSet rs) throws SQLException {
+        String value = rs.getString(timestamp);
+        return value != null && value.length() > 10 ? value.replace(' ', 'T') : value;
+    }
+}
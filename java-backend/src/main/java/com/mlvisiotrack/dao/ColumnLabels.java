@@ -0,0 +1,35 @@
+package com.mlvisiotrack.dao;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column label to index lookup for one result shape. Labels match
+ * case-insensitively and the first column with a label wins, as with
+ * ResultSet.findColumn.
+ */
+final class ColumnLabels {
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    ColumnLabels(ResultSetMetaData metaData) throws SQLException {
+        for (int i = metaData.getColumnCount(); i >= 1; i--) {
+            indexes.put(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    int indexOf(String label) throws SQLException {
+        Integer index = indexes.get(label);
+        if (index == null) {
+            throw new SQLException("Column '" + label + "' not found in result");
+        }
+        return index;
+    }
+
+    // 0 when the result has no such column, for columns a projection may leave out
+    int optionalIndexOf(String label) {
+        return indexes.getOrDefault(label, 0);
+    }
+}
@@ -0,0 +1,139 @@
+package com.mlvisiotrack.dao;
+
+import com.mlvisiotrack.models.AttendanceRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Suppresses repeated scans of the same student at the same device. The first
+ * scan for a (student_id, device_id) pair is written; any scan arriving within
+ * the window afterwards gets the original record back without touching MySQL,
+ * provided it was also taken within the window of the original. Replayed scans
+ * carry their device timestamps, so a morning and an afternoon scan sent
+ * seconds apart are both written.
+ */
+public class DuplicateScanWindow {
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateScanWindow.class);
+
+    @FunctionalInterface
+    public interface ScanWriter {
+        AttendanceRecord write() throws SQLException;
+    }
+
+    private final ConcurrentMap<String, Entry> recentScans = new ConcurrentHashMap<>();
+    private final long windowNanos;
+    private final AtomicLong nextSweepNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public DuplicateScanWindow(Properties properties) {
+        long windowSeconds = Long.parseLong(properties.getProperty("attendance.dedup.windowSeconds", "0"));
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.nextSweepNanos = new AtomicLong(System.nanoTime() + windowNanos);
+        logger.info("Duplicate scan suppression window set to {}s", windowSeconds);
+    }
+
+    public boolean isEnabled() {
+        return windowNanos > 0;
+    }
+
+    public AttendanceRecord log(String studentId, String deviceId, LocalDateTime scannedAt, 
+                                ScanWriter writer) throws SQLException {
+        if (!isEnabled()) {
+            return writer.write();
+        }
+
+        String key = studentId + '\u0000' + deviceId;
+
+        while (true) {
+            long now = System.nanoTime();
+            Entry fresh = new Entry(now, scannedAt);
+            Entry existing = recentScans.putIfAbsent(key, fresh);
+
+            if (existing != null && now - existing.createdNanos < windowNanos
+                    && existing.isRepeat(scannedAt, windowNanos)) {
+                AttendanceRecord original = await(existing);
+                if (original != null) {
+                    hits.increment();
+                    return original;
+                }
+                // The original write failed and was withdrawn; try to become the writer
+                continue;
+            }
+
+            // Expired, or a different scan of the same pair: write it and track it instead
+            if (existing == null || recentScans.replace(key, existing, fresh)) {
+                misses.increment();
+                sweepExpired(now);
+                return writeAndPublish(key, fresh, writer);
+            }
+        }
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public int getTrackedScans() { return recentScans.size(); }
+    public long getWindowSeconds() { return TimeUnit.NANOSECONDS.toSeconds(windowNanos); }
+
+    private AttendanceRecord writeAndPublish(String key, Entry entry, ScanWriter writer) throws SQLException {
+        try {
+            AttendanceRecord record = writer.write();
+            entry.result.complete(record);
+            return record;
+        } catch (SQLException | RuntimeException e) {
+            // Withdraw before failing so waiters retry instead of spinning on this entry
+            recentScans.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private AttendanceRecord await(Entry entry) throws SQLException {
+        try {
+            return entry.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for duplicate scan", e);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    // Amortised expiry: at most one caller per window walks the map
+    private void sweepExpired(long now) {
+        long next = nextSweepNanos.get();
+        if (now - next < 0 || !nextSweepNanos.compareAndSet(next, now + windowNanos)) {
+            return;
+        }
+        recentScans.entrySet().removeIf(e -> now - e.getValue().createdNanos >= windowNanos && e.getValue().result.isDone());
+    }
+
+    private static class Entry {
+        private final long createdNanos;
+        private final LocalDateTime scannedAt;
+        private final CompletableFuture<AttendanceRecord> result = new CompletableFuture<>();
+
+        Entry(long createdNanos, LocalDateTime scannedAt) {
+            this.createdNanos = createdNanos;
+            this.scannedAt = scannedAt;
+        }
+
+        // Scan times are bounded by the servlet's plausibility check, so the nanosecond difference fits
+        boolean isRepeat(LocalDateTime other, long windowNanos) {
+            return Math.abs(Duration.between(scannedAt, other).toNanos()) < windowNanos;
+        }
+    }
+}
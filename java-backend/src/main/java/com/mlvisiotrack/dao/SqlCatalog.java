@@ -0,0 +1,169 @@
+package com.mlvisiotrack.dao;
+
+/**
+ * Statement texts for the DAO queries with optional filters. Each shape
+ * precomputes every combination of its optional clauses, so callers pick a
+ * text by bitmask instead of concatenating one. The set of texts the server
+ * sees is then fixed, and the driver's per-connection prepared statement
+ * cache (see DatabaseConfig) hits on every call after the first.
+ *
+ * Optional clauses appear in declaration order, so parameters must be bound
+ * in the same order as their bits.
+ */
+final class SqlCatalog {
+
+    // Optional clause bits shared by the attendance and rollup shapes
+    static final int FROM = 1;
+    static final int TO = 1 << 1;
+    static final int DEPARTMENT = 1 << 2;
+    static final int AFTER = 1 << 3;
+
+    // Columns are listed so the positions AttendanceRowMapper caches per text cannot shift under a schema change
+    private static final String ATTENDANCE_SELECT = """
+        SELECT a.id, a.student_id, a.device_id, a.timestamp,
+               u.name as student_name, u.registration_number, u.department
+        FROM attendance a
+        LEFT JOIN users u ON a.student_id = u.id
+        """;
+
+    private static final String[] ATTENDANCE_FILTERS = {
+        " AND a.timestamp >= ?",
+        " AND a.timestamp < ?",
+        " AND u.department = ?",
+        " AND (a.timestamp < ? OR (a.timestamp = ? AND a.id < ?))"
+    };
+
+    /** Keyset page of one student's scans; the last parameter is the row limit. */
+    static final Shape ATTENDANCE_PAGE_BY_STUDENT = new Shape(
+        ATTENDANCE_SELECT + "WHERE a.student_id = ?",
+        " ORDER BY a.timestamp DESC, a.id DESC LIMIT ?",
+        ATTENDANCE_FILTERS);
+
+    /** Keyset page of all scans; the last parameter is the row limit. */
+    static final Shape ATTENDANCE_PAGE = new Shape(
+        ATTENDANCE_SELECT + "WHERE 1=1",
+        " ORDER BY a.timestamp DESC, a.id DESC LIMIT ?",
+        ATTENDANCE_FILTERS);
+
+    /** Unpaged scan export, read as a streamed result. */
+    static final Shape ATTENDANCE_STREAM = new Shape(
+        ATTENDANCE_SELECT + "WHERE 1=1",
+        " ORDER BY a.timestamp DESC, a.id DESC",
+        ATTENDANCE_FILTERS);
+
+    // Summary projection: the scan columns only, so no join unless a department is asked for
+    private static final String ATTENDANCE_SUMMARY_SELECT = """
+        SELECT a.id, a.student_id, a.device_id, a.timestamp
+        FROM attendance a
+        """;
+
+    private static final String[] ATTENDANCE_SUMMARY_FILTERS = {
+        " AND a.timestamp >= ?",
+        " AND a.timestamp < ?",
+        " AND a.student_id IN (SELECT u.id FROM users u WHERE u.department = ?)",
+        " AND (a.timestamp < ? OR (a.timestamp = ? AND a.id < ?))"
+    };
+
+    static final Shape ATTENDANCE_PAGE_BY_STUDENT_SUMMARY = new Shape(
+        ATTENDANCE_SUMMARY_SELECT + "WHERE a.student_id = ?",
+        " ORDER BY a.timestamp DESC, a.id DESC LIMIT ?",
+        ATTENDANCE_SUMMARY_FILTERS);
+
+    static final Shape ATTENDANCE_PAGE_SUMMARY = new Shape(
+        ATTENDANCE_SUMMARY_SELECT + "WHERE 1=1",
+        " ORDER BY a.timestamp DESC, a.id DESC LIMIT ?",
+        ATTENDANCE_SUMMARY_FILTERS);
+
+    static final Shape ATTENDANCE_STREAM_SUMMARY = new Shape(
+        ATTENDANCE_SUMMARY_SELECT + "WHERE 1=1",
+        " ORDER BY a.timestamp DESC, a.id DESC",
+        ATTENDANCE_SUMMARY_FILTERS);
+
+    static final Shape DAILY_ATTENDANCE = new Shape(
+        """
+        SELECT r.student_id, r.scan_date, r.device_id, r.first_scan, r.last_scan, r.scan_count,
+               u.name as student_name, u.registration_number, u.department
+        FROM attendance_daily_rollup r
+        LEFT JOIN users u ON r.student_id = u.id
+        WHERE 1=1""",
+        " ORDER BY r.scan_date DESC, r.student_id",
+        " AND r.scan_date >= ?",
+        " AND r.scan_date <= ?",
+        " AND u.department = ?");
+
+    static final String ATTENDANCE_INSERT =
+        "INSERT INTO attendance (student_id, device_id, timestamp) VALUES (?, ?, ?)";
+
+    // UserDAO.findAll filters
+    static final int ROLE = 1;
+    static final int USER_DEPARTMENT = 1 << 1;
+    static final int YEAR = 1 << 2;
+    static final int SEARCH = 1 << 3;
+
+    private static final String[] USER_FILTERS = {
+        " AND role = ?",
+        " AND department = ?",
+        " AND year = ?",
+        " AND (name LIKE ? OR email LIKE ? OR registration_number LIKE ?)"
+    };
+
+    // Listings never read password_hash
+    static final Shape USER_FIND_ALL = new Shape(
+        """
+        SELECT id, registration_number, admin_id, name, email, role, department, year, type,
+               birth_date, profile_picture, admin_level, is_active, created_at, updated_at
+        FROM users WHERE is_active = TRUE""",
+        " ORDER BY created_at DESC",
+        USER_FILTERS);
+
+    static final Shape USER_FIND_ALL_SUMMARY = new Shape(
+        """
+        SELECT id, registration_number, admin_id, name, email, role, department, year, type
+        FROM users WHERE is_active = TRUE""",
+        " ORDER BY created_at DESC",
+        USER_FILTERS);
+
+    // UserDAO.update columns
+    static final int SET_NAME = 1;
+    static final int SET_EMAIL = 1 << 1;
+    static final int SET_DEPARTMENT = 1 << 2;
+    static final int SET_YEAR = 1 << 3;
+    static final int SET_TYPE = 1 << 4;
+    static final int SET_BIRTH_DATE = 1 << 5;
+    static final int SET_PROFILE_PICTURE = 1 << 6;
+
+    static final Shape USER_UPDATE = new Shape(
+        "UPDATE users SET ",
+        "updated_at = CURRENT_TIMESTAMP WHERE id = ?",
+        "name = ?, ",
+        "email = ?, ",
+        "department = ?, ",
+        "year = ?, ",
+        "type = ?, ",
+        "birth_date = ?, ",
+        "profile_picture = ?, ");
+
+    private SqlCatalog() {}
+
+    /** One statement with optional clauses between a fixed head and tail. */
+    static final class Shape {
+        private final String[] variants;
+
+        private Shape(String head, String tail, String... optional) {
+            variants = new String[1 << optional.length];
+            for (int mask = 0; mask < variants.length; mask++) {
+                StringBuilder sql = new StringBuilder(head);
+                for (int i = 0; i < optional.length; i++) {
+                    if ((mask & (1 << i)) != 0) {
+                        sql.append(optional[i]);
+                    }
+                }
+                variants[mask] = sql.append(tail).toString();
+            }
+        }
+
+        String sql(int mask) {
+            return variants[mask];
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.mlvisiotrack.dao;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Binds sargable date filters. Calendar-day bounds become a half-open range on
+ * the raw column ({@code col >= start AND col < end + 1 day}) so MySQL can use
+ * an index range scan instead of evaluating {@code DATE(col)} for every row.
+ * The clauses themselves are the FROM and TO filters in {@link SqlCatalog}.
+ */
+final class TimestampRange {
+    
+    private TimestampRange() {}
+    
+    // Either bound may be null for an open-ended range; endDate is inclusive.
+    // Returns the SqlCatalog bits for the bounds that were bound.
+    static int bind(List<Object> parameters, LocalDate startDate, LocalDate endDate) {
+        int mask = 0;
+        
+        if (startDate != null) {
+            mask |= SqlCatalog.FROM;
+            parameters.add(Timestamp.valueOf(startDate.atStartOfDay()));
+        }
+        
+        if (endDate != null) {
+            mask |= SqlCatalog.TO;
+            parameters.add(Timestamp.valueOf(endDate.plusDays(1).atStartOfDay()));
+        }
+        
+        return mask;
+    }
+    
+    static int bindDay(List<Object> parameters, LocalDate date) {
+        return bind(parameters, date, date);
+    }
+}
@@ -1,7 +1,13 @@
 package com.mlvisiotrack.dao;
 
 import com.mlvisiotrack.config.DatabaseConfig;
+import com.mlvisiotrack.config.Workload;
+import com.mlvisiotrack.metrics.Metrics;
+import com.mlvisiotrack.metrics.MethodMetrics;
+import com.mlvisiotrack.models.Projection;
 import com.mlvisiotrack.models.User;
+import com.mlvisiotrack.utils.AuthTokenCache;
+import com.mlvisiotrack.utils.DataVersion;
 import org.mindrot.jbcrypt.BCrypt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,42 +21,61 @@ import java.util.UUID;
 public class UserDAO {
     private static final Logger logger = LoggerFactory.getLogger(UserDAO.class);
     
+    private static final MethodMetrics FIND_BY_CREDENTIALS = Metrics.dao("UserDAO", "findByCredentials");
+    private static final MethodMetrics FIND_BY_ID = Metrics.dao("UserDAO", "findById");
+    private static final MethodMetrics CREATE = Metrics.dao("UserDAO", "create");
+    private static final MethodMetrics UPDATE = Metrics.dao("UserDAO", "update");
+    private static final MethodMetrics UPDATE_PASSWORD = Metrics.dao("UserDAO", "updatePassword");
+    private static final MethodMetrics FIND_ALL = Metrics.dao("UserDAO", "findAll");
+    private static final MethodMetrics DELETE = Metrics.dao("UserDAO", "delete");
+    
+    // Listed rather than *, so the column positions UserRowMapper caches per query text stay fixed
+    private static final String USER_COLUMNS = 
+        "id, registration_number, admin_id, name, email, password_hash, role, department, year, type, " +
+        "birth_date, profile_picture, admin_level, is_active, created_at, updated_at";
+    
     public User findByCredentials(String identifier, boolean isAdmin) throws SQLException {
         String query;
         if (isAdmin) {
-            query = "SELECT * FROM users WHERE admin_id = ? AND role = 'admin' AND is_active = TRUE";
+            query = "SELECT " + USER_COLUMNS + " FROM users WHERE admin_id = ? AND role = 'admin' AND is_active = TRUE";
         } else {
-            query = "SELECT * FROM users WHERE registration_number = ? AND role = 'student' AND is_active = TRUE";
+            query = "SELECT " + USER_COLUMNS + " FROM users WHERE registration_number = ? AND role = 'student' AND is_active = TRUE";
         }
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (MethodMetrics.Call call = FIND_BY_CREDENTIALS.start();
+             Connection conn = DatabaseConfig.getPrimaryConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(query)) {
             
             stmt.setString(1, identifier);
             
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToUser(rs);
+                    call.rows(1);
+                    return UserRowMapper.forQuery(query, rs).map(rs);
                 }
             }
+            call.rows(0);
         }
         
         return null;
     }
     
     public User findById(String id) throws SQLException {
-        String query = "SELECT * FROM users WHERE id = ? AND is_active = TRUE";
+        String query = "SELECT " + USER_COLUMNS + " FROM users WHERE id = ? AND is_active = TRUE";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (MethodMetrics.Call call = FIND_BY_ID.start();
+             Connection conn = DatabaseConfig.getPrimaryConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(query)) {
             
             stmt.setString(1, id);
             
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return mapResultSetToUser(rs);
+                    call.rows(1);
+                    return UserRowMapper.forQuery(query, rs).map(rs);
                 }
             }
+            call.rows(0);
         }
         
         return null;
@@ -67,7 +92,8 @@ public class UserDAO {
             ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
         """;
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (MethodMetrics.Call call = CREATE.start();
+             Connection conn = DatabaseConfig.getWriteConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(query)) {
             
             stmt.setString(1, id);
@@ -84,7 +110,9 @@ public class UserDAO {
             stmt.setString(12, user.getAdminLevel() != null ? user.getAdminLevel().getValue() : "regular");
             
             int rowsAffected = stmt.executeUpdate();
+            call.rows(rowsAffected);
             if (rowsAffected > 0) {
+                DataVersion.usersChanged();
                 return findById(id);
             }
         }
@@ -93,41 +121,41 @@ public class UserDAO {
     }
     
     public User update(String id, User user) throws SQLException {
-        StringBuilder queryBuilder = new StringBuilder("UPDATE users SET ");
         List<Object> parameters = new ArrayList<>();
+        int columns = 0;
         
         if (user.getName() != null) {
-            queryBuilder.append("name = ?, ");
+            columns |= SqlCatalog.SET_NAME;
             parameters.add(user.getName());
         }
         
         if (user.getEmail() != null) {
-            queryBuilder.append("email = ?, ");
+            columns |= SqlCatalog.SET_EMAIL;
             parameters.add(user.getEmail());
         }
         
         if (user.getDepartment() != null) {
-            queryBuilder.append("department = ?, ");
+            columns |= SqlCatalog.SET_DEPARTMENT;
             parameters.add(user.getDepartment());
         }
         
         if (user.getYear() != null) {
-            queryBuilder.append("year = ?, ");
+            columns |= SqlCatalog.SET_YEAR;
             parameters.add(user.getYear());
         }
         
         if (user.getType() != null) {
-            queryBuilder.append("type = ?, ");
+            columns |= SqlCatalog.SET_TYPE;
             parameters.add(user.getType());
         }
         
         if (user.getBirthDate() != null) {
-            queryBuilder.append("birth_date = ?, ");
+            columns |= SqlCatalog.SET_BIRTH_DATE;
             parameters.add(Date.valueOf(user.getBirthDate()));
         }
         
         if (user.getProfilePicture() != null) {
-            queryBuilder.append("profile_picture = ?, ");
+            columns |= SqlCatalog.SET_PROFILE_PICTURE;
             parameters.add(user.getProfilePicture());
         }
         
@@ -135,18 +163,21 @@ public class UserDAO {
             throw new SQLException("No fields to update");
         }
         
-        queryBuilder.append("updated_at = CURRENT_TIMESTAMP WHERE id = ?");
         parameters.add(id);
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(queryBuilder.toString())) {
+        try (MethodMetrics.Call call = UPDATE.start();
+             Connection conn = DatabaseConfig.getWriteConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(SqlCatalog.USER_UPDATE.sql(columns))) {
             
             for (int i = 0; i < parameters.size(); i++) {
                 stmt.setObject(i + 1, parameters.get(i));
             }
             
             int rowsAffected = stmt.executeUpdate();
+            call.rows(rowsAffected);
             if (rowsAffected > 0) {
+                AuthTokenCache.invalidateUser(id);
+                DataVersion.usersChanged();
                 return findById(id);
             }
         }
@@ -158,13 +189,20 @@ public class UserDAO {
         String hashedPassword = BCrypt.hashpw(newPassword, BCrypt.gensalt());
         String query = "UPDATE users SET password_hash = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (MethodMetrics.Call call = UPDATE_PASSWORD.start();
+             Connection conn = DatabaseConfig.getWriteConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(query)) {
             
             stmt.setString(1, hashedPassword);
             stmt.setString(2, id);
             
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            call.rows(updated ? 1 : 0);
+            if (updated) {
+                AuthTokenCache.invalidateUser(id);
+                DataVersion.usersChanged();
+            }
+            return updated;
         }
     }
     
@@ -172,51 +210,54 @@ public class UserDAO {
         return BCrypt.checkpw(plainPassword, hashedPassword);
     }
     
-    public List<User> findAll(String role, String department, String year, String search) throws SQLException {
-        StringBuilder queryBuilder = new StringBuilder(
-            "SELECT * FROM users WHERE is_active = TRUE"
-        );
+    public List<User> findAll(String role, String department, String year, String search,
+                              Projection projection) throws SQLException {
         List<Object> parameters = new ArrayList<>();
+        int filters = 0;
         
         if (role != null && !role.isEmpty()) {
-            queryBuilder.append(" AND role = ?");
+            filters |= SqlCatalog.ROLE;
             parameters.add(role);
         }
         
         if (department != null && !department.isEmpty()) {
-            queryBuilder.append(" AND department = ?");
+            filters |= SqlCatalog.USER_DEPARTMENT;
             parameters.add(department);
         }
         
         if (year != null && !year.isEmpty()) {
-            queryBuilder.append(" AND year = ?");
+            filters |= SqlCatalog.YEAR;
             parameters.add(year);
         }
         
         if (search != null && !search.isEmpty()) {
-            queryBuilder.append(" AND (name LIKE ? OR email LIKE ? OR registration_number LIKE ?)");
+            filters |= SqlCatalog.SEARCH;
             String searchPattern = "%" + search + "%";
             parameters.add(searchPattern);
             parameters.add(searchPattern);
             parameters.add(searchPattern);
         }
         
-        queryBuilder.append(" ORDER BY created_at DESC");
-        
+        SqlCatalog.Shape shape = projection.usesSummaryColumns()
+            ? SqlCatalog.USER_FIND_ALL_SUMMARY : SqlCatalog.USER_FIND_ALL;
+        String query = shape.sql(filters);
         List<User> users = new ArrayList<>();
         
-        try (Connection conn = DatabaseConfig.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(queryBuilder.toString())) {
+        try (MethodMetrics.Call call = FIND_ALL.start();
+             Connection conn = DatabaseConfig.getReadConnection(Workload.INTERACTIVE);
+             PreparedStatement stmt = conn.prepareStatement(query)) {
             
             for (int i = 0; i < parameters.size(); i++) {
                 stmt.setObject(i + 1, parameters.get(i));
             }
             
             try (ResultSet rs = stmt.executeQuery()) {
+                UserRowMapper mapper = UserRowMapper.forQuery(query, rs);
                 while (rs.next()) {
-                    users.add(mapResultSetToUser(rs));
+                    users.add(mapper.map(rs));
                 }
             }
+            call.rows(users.size());
         }
         
         return users;
@@ -225,51 +266,18 @@ public class UserDAO {
     public boolean delete(String id) throws SQLException {
         String query = "UPDATE users SET is_active = FALSE, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
         
-        try (Connection conn = DatabaseConfig.getConnection();
+        try (MethodMetrics.Call call = DELETE.start();
+             Connection conn = DatabaseConfig.getWriteConnection(Workload.INTERACTIVE);
              PreparedStatement stmt = conn.prepareStatement(query)) {
             
             stmt.setString(1, id);
-            return stmt.executeUpdate() > 0;
-        }
-    }
-    
-    private User mapResultSetToUser(ResultSet rs) throws SQLException {
-        User user = new User();
-        user.setId(rs.getString("id"));
-        user.setRegistrationNumber(rs.getString("registration_number"));
-        user.setAdminId(rs.getString("admin_id"));
-        user.setName(rs.getString("name"));
-        user.setEmail(rs.getString("email"));
-        user.setPasswordHash(rs.getString("password_hash"));
-        user.setRole(User.UserRole.fromString(rs.getString("role")));
-        user.setDepartment(rs.getString("department"));
-        user.setYear(rs.getString("year"));
-        user.setType(rs.getString("type"));
-        
-        Date birthDate = rs.getDate("birth_date");
-        if (birthDate != null) {
-            user.setBirthDate(birthDate.toLocalDate());
-        }
-        
-        user.setProfilePicture(rs.getString("profile_picture"));
-        
-        String adminLevelStr = rs.getString("admin_level");
-        if (adminLevelStr != null) {
-            user.setAdminLevel(User.AdminLevel.fromString(adminLevelStr));
-        }
-        
-        user.setActive(rs.getBoolean("is_active"));
-        
-        Timestamp createdAt = rs.getTimestamp("created_at");
-        if (createdAt != null) {
-            user.setCreatedAt(createdAt.toLocalDateTime());
-        }
-        
-        Timestamp updatedAt = rs.getTimestamp("updated_at");
-        if (updatedAt != null) {
-            user.setUpdatedAt(updatedAt.toLocalDateTime());
+            boolean deleted = stmt.executeUpdate() > 0;
+            call.rows(deleted ? 1 : 0);
+            if (deleted) {
+                AuthTokenCache.invalidateUser(id);
+                DataVersion.usersChanged();
+            }
+            return deleted;
         }
-        
-        return user;
     }
 }
\ No newline at end of file
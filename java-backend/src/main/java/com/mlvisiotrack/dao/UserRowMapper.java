@@ -0,0 +1,114 @@
+package com.mlvisiotrack.dao;
+
+import com.mlvisiotrack.models.User;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps users rows by column index, resolved once per statement text like
+ * {@link AttendanceRowMapper}.
+ */
+final class UserRowMapper {
+    private static final Map<String, UserRowMapper> BY_QUERY = new ConcurrentHashMap<>();
+
+    private final int id;
+    private final int registrationNumber;
+    private final int adminId;
+    private final int name;
+    private final int email;
+    private final int passwordHash;
+    private final int role;
+    private final int department;
+    private final int year;
+    private final int type;
+    private final int birthDate;
+    private final int profilePicture;
+    private final int adminLevel;
+    private final int isActive;
+    private final int createdAt;
+    private final int updatedAt;
+
+    // Package-private for the row mapper benchmarks
+    UserRowMapper(ResultSetMetaData metaData) throws SQLException {
+        ColumnLabels columns = new ColumnLabels(metaData);
+        id = columns.indexOf("id");
+        registrationNumber = columns.indexOf("registration_number");
+        adminId = columns.indexOf("admin_id");
+        name = columns.indexOf("name");
+        email = columns.indexOf("email");
+        // Listings never select the hash
+        passwordHash = columns.optionalIndexOf("password_hash");
+        role = columns.indexOf("role");
+        department = columns.indexOf("department");
+        year = columns.indexOf("year");
+        type = columns.indexOf("type");
+        // Absent from the summary projection; map() checks is_active for all of them
+        birthDate = columns.optionalIndexOf("birth_date");
+        profilePicture = columns.optionalIndexOf("profile_picture");
+        adminLevel = columns.optionalIndexOf("admin_level");
+        isActive = columns.optionalIndexOf("is_active");
+        createdAt = columns.optionalIndexOf("created_at");
+        updatedAt = columns.optionalIndexOf("updated_at");
+    }
+
+    static UserRowMapper forQuery(String query, ResultSet rs) throws SQLException {
+        UserRowMapper mapper = BY_QUERY.get(query);
+        if (mapper == null) {
+            mapper = new UserRowMapper(rs.getMetaData());
+            BY_QUERY.putIfAbsent(query, mapper);
+        }
+        return mapper;
+    }
+
+    User map(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setId(rs.getString(id));
+        user.setRegistrationNumber(rs.getString(registrationNumber));
+        user.setAdminId(rs.getString(adminId));
+        user.setName(rs.getString(name));
+        user.setEmail(rs.getString(email));
+        if (passwordHash != 0) {
+            user.setPasswordHash(rs.getString(passwordHash));
+        }
+        user.setRole(User.UserRole.fromString(rs.getString(role)));
+        user.setDepartment(rs.getString(department));
+        user.setYear(rs.getString(year));
+        user.setType(rs.getString(type));
+
+        if (isActive == 0) { // Summary projection
+            return user;
+        }
+
+        Date birthDateValue = rs.getDate(birthDate);
+        if (birthDateValue != null) {
+            user.setBirthDate(birthDateValue.toLocalDate());
+        }
+
+        user.setProfilePicture(rs.getString(profilePicture));
+
+        String adminLevelStr = rs.getString(adminLevel);
+        if (adminLevelStr != null) {
+            user.setAdminLevel(User.AdminLevel.fromString(adminLevelStr));
+        }
+
+        user.setActive(rs.getBoolean(isActive));
+
+        Timestamp createdAtValue = rs.getTimestamp(createdAt);
+        if (createdAtValue != null) {
+            user.setCreatedAt(createdAtValue.toLocalDateTime());
+        }
+
+        Timestamp updatedAtValue = rs.getTimestamp(updatedAt);
+        if (updatedAtValue != null) {
+            user.setUpdatedAt(updatedAtValue.toLocalDateTime());
+        }
+
+        return user;
+    }
+}
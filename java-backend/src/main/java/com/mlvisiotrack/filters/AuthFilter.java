@@ -5,8 +5,10 @@ import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.auth0.jwt.interfaces.JWTVerifier;
+import com.mlvisiotrack.config.DatabaseConfig;
 import com.mlvisiotrack.dao.UserDAO;
 import com.mlvisiotrack.models.User;
+import com.mlvisiotrack.utils.AuthTokenCache;
 import com.mlvisiotrack.utils.JsonResponse;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,17 +17,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.sql.SQLException;
 import java.util.Properties;
 
 public class AuthFilter implements Filter {
     private static final Logger logger = LoggerFactory.getLogger(AuthFilter.class);
-    private String jwtSecret;
+    private JWTVerifier verifier;
     private UserDAO userDAO;
     
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         Properties appProperties = (Properties) filterConfig.getServletContext().getAttribute("appProperties");
-        jwtSecret = appProperties.getProperty("jwt.secret");
+        String jwtSecret = appProperties.getProperty("jwt.secret");
+        
+        // Verifiers are thread-safe; build one instead of one per request
+        verifier = JWT.require(Algorithm.HMAC256(jwtSecret)).build();
         userDAO = new UserDAO();
     }
     
@@ -35,6 +41,8 @@ public class AuthFilter implements Filter {
         
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         HttpServletResponse httpResponse = (HttpServletResponse) response;
+        long started = System.nanoTime();
+        boolean authenticated = false;
         
         try {
             String authHeader = httpRequest.getHeader("Authorization");
@@ -46,38 +54,66 @@ public class AuthFilter implements Filter {
             
             String token = authHeader.substring(7); // Remove "Bearer " prefix
             
-            // Verify JWT token
-            Algorithm algorithm = Algorithm.HMAC256(jwtSecret);
-            JWTVerifier verifier = JWT.require(algorithm).build();
-            DecodedJWT decodedJWT = verifier.verify(token);
-            
-            String userId = decodedJWT.getSubject();
-            String role = decodedJWT.getClaim("role").asString();
-            String email = decodedJWT.getClaim("email").asString();
+            // Reuse a recent verification of the same token when possible
+            AuthTokenCache.Entry verified = AuthTokenCache.get(token);
+            if (verified == null) {
+                verified = verify(token);
+            }
             
-            // Verify user still exists and is active
-            User user = userDAO.findById(userId);
-            if (user == null || !user.isActive()) {
+            if (!verified.isActive()) {
                 JsonResponse.sendError(httpResponse, 401, "Access denied. User not found or inactive.");
                 return;
             }
             
             // Set user information in request attributes
-            httpRequest.setAttribute("userId", userId);
-            httpRequest.setAttribute("userRole", role);
-            httpRequest.setAttribute("userEmail", email);
+            httpRequest.setAttribute("userId", verified.getUserId());
+            httpRequest.setAttribute("userRole", verified.getRole());
+            httpRequest.setAttribute("userEmail", verified.getEmail());
             
-            chain.doFilter(request, response);
+            RequestMetricsFilter.addAuthTime(response, System.nanoTime() - started);
+            authenticated = true;
+            
+            // Lets DatabaseConfig keep this user's reads on the primary right after they write
+            DatabaseConfig.bindSession(verified.getUserId());
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                DatabaseConfig.clearSession();
+            }
             
         } catch (JWTVerificationException e) {
             logger.warn("JWT verification failed: {}", e.getMessage());
             JsonResponse.sendError(httpResponse, 401, "Access denied. Invalid or expired token.");
         } catch (Exception e) {
+            if (httpResponse.isCommitted()) {
+                // A streamed body is already out; rethrow so the container aborts the connection
+                throw e instanceof ServletException ? (ServletException) e : new ServletException(e);
+            }
             logger.error("Error in AuthFilter", e);
             JsonResponse.sendError(httpResponse, 500, "Internal server error");
+        } finally {
+            // Rejected requests spend all their time here
+            if (!authenticated) {
+                RequestMetricsFilter.addAuthTime(response, System.nanoTime() - started);
+            }
         }
     }
     
+    // Verifies the signature and checks the user still exists and is active
+    private AuthTokenCache.Entry verify(String token) throws SQLException {
+        DecodedJWT decodedJWT = verifier.verify(token);
+        
+        String userId = decodedJWT.getSubject();
+        String role = decodedJWT.getClaim("role").asString();
+        String email = decodedJWT.getClaim("email").asString();
+        
+        long generation = AuthTokenCache.generationOf(userId);
+        User user = userDAO.findById(userId);
+        boolean active = user != null && user.isActive();
+        
+        return AuthTokenCache.put(token, userId, role, email, active, decodedJWT.getExpiresAt(), generation);
+    }
+    
     @Override
     public void destroy() {
         // Cleanup if needed
@@ -0,0 +1,477 @@
+package com.mlvisiotrack.filters;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses responses with gzip or deflate as negotiated via Accept-Encoding.
+ * The first http.compression.minSize bytes are held back. Responses that end
+ * within that buffer go out as-is; larger ones, or ones explicitly flushed such
+ * as streamed listings, are compressed as they are written. Responses that
+ * already carry a Content-Encoding (the gzip CSV export) are left untouched.
+ * Every response of a compressible type carries Vary: Accept-Encoding, even
+ * when it went out uncompressed, so shared caches key it on the encoding.
+ */
+public class CompressionFilter implements Filter {
+    private static final Logger logger = LoggerFactory.getLogger(CompressionFilter.class);
+    private boolean enabled;
+    private int minSize;
+    private Set<String> mimeTypes;
+    private CompressionStats stats;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        Properties appProperties = (Properties) filterConfig.getServletContext().getAttribute("appProperties");
+
+        enabled = Boolean.parseBoolean(appProperties.getProperty("http.compression.enabled", "true"));
+        minSize = Integer.parseInt(appProperties.getProperty("http.compression.minSize", "1024"));
+        mimeTypes = new HashSet<>();
+        for (String type : appProperties.getProperty("http.compression.mimeTypes", "application/json,text/csv").split(",")) {
+            mimeTypes.add(type.trim().toLowerCase());
+        }
+
+        stats = new CompressionStats();
+        filterConfig.getServletContext().setAttribute("compressionStats", stats);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String encoding = !"HEAD".equalsIgnoreCase(httpRequest.getMethod())
+            ? negotiate(httpRequest.getHeader("Accept-Encoding")) : null;
+        if (encoding == null) {
+            chain.doFilter(request, new VaryingResponse(httpResponse));
+            return;
+        }
+
+        CompressingResponse wrapper = new CompressingResponse(httpResponse, encoding);
+        boolean wasAsync = request.isAsyncStarted();
+
+        try {
+            chain.doFilter(request, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            // Let the error handler start from a clean, uncompressed response
+            if (!httpResponse.isCommitted()) {
+                wrapper.reset();
+            }
+            throw e;
+        }
+
+        // Work handed off to another thread finishes when the async cycle does
+        if (!wasAsync && request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    finishQuietly(wrapper);
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {}
+
+                @Override
+                public void onError(AsyncEvent event) {}
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {}
+            });
+        } else {
+            wrapper.finish();
+        }
+    }
+
+    private void finishQuietly(CompressingResponse wrapper) {
+        try {
+            wrapper.finish();
+        } catch (IOException e) {
+            logger.warn("Failed to finish compressed response", e);
+        }
+    }
+
+    // Picks gzip, then deflate, honouring q=0 exclusions
+    public static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+
+        boolean gzip = false;
+        boolean deflate = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            boolean accepted = true;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+
+            if (coding.equals("gzip") || coding.equals("*")) {
+                gzip = gzip || accepted;
+            }
+            if (coding.equals("deflate")) {
+                deflate = deflate || accepted;
+            }
+        }
+
+        return gzip ? "gzip" : deflate ? "deflate" : null;
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to release
+    }
+
+    private boolean isCompressibleType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        int separator = contentType.indexOf(';');
+        String mimeType = (separator >= 0 ? contentType.substring(0, separator) : contentType).trim().toLowerCase();
+        return mimeTypes.contains(mimeType);
+    }
+
+    // Adds Vary: Accept-Encoding to responses of compressible types as their content type is set
+    private class VaryingResponse extends HttpServletResponseWrapper {
+
+        VaryingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void setContentType(String type) {
+            super.setContentType(type);
+            varyOnEncoding(type);
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            super.setHeader(name, value);
+            if ("Content-Type".equalsIgnoreCase(name)) {
+                varyOnEncoding(value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            super.addHeader(name, value);
+            if ("Content-Type".equalsIgnoreCase(name)) {
+                varyOnEncoding(value);
+            }
+        }
+
+        private void varyOnEncoding(String contentType) {
+            if (!isCompressibleType(contentType)) {
+                return;
+            }
+            for (String vary : getHeaders("Vary")) {
+                if (vary.toLowerCase().contains("accept-encoding")) {
+                    return;
+                }
+            }
+            super.addHeader("Vary", "Accept-Encoding");
+        }
+    }
+
+    private class CompressingResponse extends VaryingResponse {
+        private final String encoding;
+        private CompressingStream stream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, String encoding) {
+            super(response);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (stream == null) {
+                stream = new CompressingStream(this);
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                stream = new CompressingStream(this);
+                writer = new PrintWriter(new OutputStreamWriter(stream, Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        // The length on the wire is unknown until compression finishes
+        @Override
+        public void setContentLength(int length) {}
+
+        @Override
+        public void setContentLengthLong(long length) {}
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!"Content-Length".equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!"Content-Length".equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.flush();
+            } else {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            if (stream != null) {
+                stream.discard();
+            }
+            stream = null;
+            writer = null;
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (stream != null) {
+                stream.discard();
+                stream = new CompressingStream(this);
+                if (writer != null) {
+                    writer = new PrintWriter(new OutputStreamWriter(stream, Charset.forName(getCharacterEncoding())));
+                }
+            }
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.close();
+            }
+        }
+
+        HttpServletResponse target() {
+            return (HttpServletResponse) getResponse();
+        }
+    }
+
+    private class CompressingStream extends ServletOutputStream {
+        private final CompressingResponse response;
+        private final byte[] buffer = new byte[minSize];
+        private int count;
+
+        // Deflater output lands here first so it can be timed apart from socket writes
+        private final ByteArrayOutputStream pending = new ByteArrayOutputStream(8192);
+        private OutputStream compressor;
+        private boolean passthrough;
+        private boolean closed;
+
+        private long bytesIn;
+        private long bytesOut;
+        private long compressNanos;
+
+        CompressingStream(CompressingResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream already closed");
+            }
+
+            if (compressor != null) {
+                compress(b, off, len);
+            } else if (passthrough) {
+                target().write(b, off, len);
+            } else if (count + len <= buffer.length) {
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+            } else {
+                start(true);
+                write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            // An explicit flush means the body is being streamed, so stop waiting for the threshold
+            if (compressor == null && !passthrough && count > 0) {
+                start(true);
+            }
+
+            if (compressor != null) {
+                long started = System.nanoTime();
+                compressor.flush();
+                compressNanos += System.nanoTime() - started;
+                drain();
+            }
+            target().flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            if (compressor == null && !passthrough) {
+                if (count > 0) {
+                    stats.recordSkipped();
+                }
+                start(false);
+            }
+
+            if (compressor != null) {
+                long started = System.nanoTime();
+                compressor.close();
+                compressNanos += System.nanoTime() - started;
+                drain();
+                stats.recordCompressed(bytesIn, bytesOut, compressNanos);
+            }
+
+            closed = true;
+            target().close();
+        }
+
+        @Override
+        public boolean isReady() {
+            try {
+                return target().isReady();
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                target().setWriteListener(writeListener);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // Drops any buffered or half-compressed output after a reset
+        void discard() {
+            if (compressor != null) {
+                try {
+                    compressor.close();
+                } catch (IOException e) {
+                    // In-memory target; nothing to report
+                }
+            }
+            closed = true;
+        }
+
+        private void start(boolean largeEnough) throws IOException {
+            if (largeEnough && isCompressible()) {
+                HttpServletResponse target = response.target();
+                target.setHeader("Content-Encoding", response.encoding);
+                compressor = "gzip".equals(response.encoding)
+                    ? new GZIPOutputStream(pending, 8192, true)
+                    : new DeflaterOutputStream(pending, true);
+            } else {
+                passthrough = true;
+            }
+
+            if (count > 0) {
+                int buffered = count;
+                count = 0;
+                if (compressor != null) {
+                    compress(buffer, 0, buffered);
+                } else {
+                    target().write(buffer, 0, buffered);
+                }
+            }
+        }
+
+        private boolean isCompressible() {
+            HttpServletResponse target = response.target();
+            int status = target.getStatus();
+            if (target.isCommitted() || status == 204 || status == 304 || target.getHeader("Content-Encoding") != null) {
+                return false;
+            }
+
+            return isCompressibleType(target.getContentType());
+        }
+
+        private void compress(byte[] b, int off, int len) throws IOException {
+            long started = System.nanoTime();
+            compressor.write(b, off, len);
+            compressNanos += System.nanoTime() - started;
+            bytesIn += len;
+            drain();
+        }
+
+        private void drain() throws IOException {
+            if (pending.size() > 0) {
+                bytesOut += pending.size();
+                pending.writeTo(target());
+                pending.reset();
+            }
+        }
+
+        private ServletOutputStream target() throws IOException {
+            return response.target().getOutputStream();
+        }
+    }
+}
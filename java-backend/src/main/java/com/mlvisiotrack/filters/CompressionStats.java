@@ -0,0 +1,40 @@
+package com.mlvisiotrack.filters;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters kept by CompressionFilter and reported by GET /api/stats. Time is
+ * measured only around deflater calls, which write into memory, so it reflects
+ * compression CPU cost rather than time spent blocked on the socket.
+ */
+public class CompressionStats {
+    private final LongAdder responsesCompressed = new LongAdder();
+    private final LongAdder responsesSkipped = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+
+    void recordCompressed(long uncompressed, long compressed, long nanos) {
+        responsesCompressed.increment();
+        bytesIn.add(uncompressed);
+        bytesOut.add(compressed);
+        compressNanos.add(nanos);
+    }
+
+    void recordSkipped() {
+        responsesSkipped.increment();
+    }
+
+    public long getResponsesCompressed() { return responsesCompressed.sum(); }
+    public long getResponsesSkipped() { return responsesSkipped.sum(); }
+    public long getBytesIn() { return bytesIn.sum(); }
+    public long getBytesOut() { return bytesOut.sum(); }
+    public long getCompressMillis() { return TimeUnit.NANOSECONDS.toMillis(compressNanos.sum()); }
+
+    // Compressed size as a fraction of the original; 0 until something was compressed
+    public double getRatio() {
+        long in = bytesIn.sum();
+        return in > 0 ? (double) bytesOut.sum() / in : 0.0;
+    }
+}
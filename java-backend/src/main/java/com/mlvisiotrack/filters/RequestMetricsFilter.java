@@ -0,0 +1,292 @@
+package com.mlvisiotrack.filters;
+
+import com.mlvisiotrack.metrics.Metrics;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Records latency, status and response size per route template. Mapped ahead
+ * of CompressionFilter, so sizes are what went on the wire. AuthFilter and
+ * JsonResponse report their share of the request through addAuthTime and
+ * addSerializationTime. Requests completed on another thread (async login)
+ * are recorded when the async cycle completes.
+ */
+public class RequestMetricsFilter implements Filter {
+    private static final Logger logger = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    // Path segments that name an endpoint; any other segment is a parameter
+    private static final Set<String> LITERAL_SEGMENTS = Set.of(
+        "logAttendance", "logAttendanceBatch", "getAttendance", "export", "daily",
+        "login", "register", "logout", "profile", "change-password"
+    );
+    // Endpoints followed by exactly one parameter segment
+    private static final Map<String, String> PARAMETER_SEGMENTS = Map.of(
+        "student", "{studentId}",
+        "date", "{date}",
+        "stats", "{studentId}"
+    );
+    private static final Set<String> METHODS = Set.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "HEAD", "PATCH");
+
+    private boolean enabled;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        Properties appProperties = (Properties) filterConfig.getServletContext().getAttribute("appProperties");
+        enabled = Boolean.parseBoolean(appProperties.getProperty("http.metrics.enabled", "true"));
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        if (!enabled || request.getDispatcherType() != DispatcherType.REQUEST) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        MeteredResponse metered = new MeteredResponse((HttpServletResponse) response);
+        boolean wasAsync = request.isAsyncStarted();
+
+        try {
+            chain.doFilter(request, metered);
+        } catch (IOException | ServletException | RuntimeException e) {
+            metered.failed = true;
+            record(httpRequest, metered);
+            throw e;
+        }
+
+        if (!wasAsync && request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    record(httpRequest, metered);
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {}
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    metered.failed = true;
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {}
+            });
+        } else {
+            record(httpRequest, metered);
+        }
+    }
+
+    private void record(HttpServletRequest request, MeteredResponse metered) {
+        try {
+            metered.finish();
+            int status = metered.failed ? 500 : metered.getStatus();
+            Metrics.route(methodOf(request), routeOf(request))
+                .record(status, System.nanoTime() - metered.started, metered.authNanos,
+                        metered.serializationNanos, metered.bytes);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to record request metrics", e);
+        }
+    }
+
+    /** Adds time spent authenticating the request; a no-op when metrics are off. */
+    public static void addAuthTime(ServletResponse response, long nanos) {
+        MeteredResponse metered = find(response);
+        if (metered != null) {
+            metered.authNanos += nanos;
+        }
+    }
+
+    /** Adds time spent serializing the response body; a no-op when metrics are off. */
+    public static void addSerializationTime(ServletResponse response, long nanos) {
+        MeteredResponse metered = find(response);
+        if (metered != null) {
+            metered.serializationNanos += nanos;
+        }
+    }
+
+    // Inner filters may have wrapped the response further; the chain is only a few deep
+    private static MeteredResponse find(ServletResponse response) {
+        while (response instanceof ServletResponseWrapper) {
+            if (response instanceof MeteredResponse) {
+                return (MeteredResponse) response;
+            }
+            response = ((ServletResponseWrapper) response).getResponse();
+        }
+        return null;
+    }
+
+    private static String methodOf(HttpServletRequest request) {
+        String method = request.getMethod();
+        return METHODS.contains(method) ? method : "OTHER";
+    }
+
+    /**
+     * Maps the request onto a bounded set of templates such as
+     * /api/attendance/student/{studentId}. Paths the servlets do not serve
+     * collapse into one template per servlet, or "unmatched" outside them.
+     */
+    static String routeOf(HttpServletRequest request) {
+        HttpServletMapping mapping = request.getHttpServletMapping();
+        if (mapping == null || mapping.getMappingMatch() == null) {
+            return "unmatched";
+        }
+
+        switch (mapping.getMappingMatch()) {
+            case EXACT:
+                return mapping.getPattern();
+            case PATH:
+                break;
+            default:
+                return "unmatched";
+        }
+
+        String prefix = mapping.getPattern().substring(0, mapping.getPattern().length() - 2);
+        String pathInfo = request.getPathInfo();
+        if (pathInfo == null || pathInfo.equals("/")) {
+            return prefix;
+        }
+
+        String[] segments = pathInfo.substring(1).split("/", -1);
+        if (segments.length == 1) {
+            return LITERAL_SEGMENTS.contains(segments[0]) ? prefix + "/" + segments[0] : prefix + "/{id}";
+        }
+        if (segments.length == 2 && PARAMETER_SEGMENTS.containsKey(segments[0])) {
+            return prefix + "/" + segments[0] + "/" + PARAMETER_SEGMENTS.get(segments[0]);
+        }
+        return prefix + "/*";
+    }
+
+    @Override
+    public void destroy() {
+        // Nothing to release
+    }
+
+    // Counts body bytes and carries the per-request timings; used by one thread at a time
+    private static class MeteredResponse extends HttpServletResponseWrapper {
+        private final long started = System.nanoTime();
+        private long authNanos;
+        private long serializationNanos;
+        private long bytes;
+        private boolean failed;
+
+        private CountingStream stream;
+        private PrintWriter writer;
+
+        MeteredResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            if (stream == null) {
+                stream = new CountingStream(this, super.getOutputStream());
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                stream = new CountingStream(this, super.getOutputStream());
+                writer = new PrintWriter(new OutputStreamWriter(stream, Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+
+        // Whatever was buffered is discarded, and so is its count
+        @Override
+        public void reset() {
+            super.reset();
+            stream = null;
+            writer = null;
+            bytes = 0;
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (writer != null) {
+                writer = new PrintWriter(new OutputStreamWriter(stream, Charset.forName(getCharacterEncoding())));
+            }
+            bytes = 0;
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+    }
+
+    private static class CountingStream extends ServletOutputStream {
+        private final MeteredResponse response;
+        private final ServletOutputStream target;
+
+        CountingStream(MeteredResponse response, ServletOutputStream target) {
+            this.response = response;
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            response.bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            response.bytes += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            target.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            target.setWriteListener(writeListener);
+        }
+    }
+}
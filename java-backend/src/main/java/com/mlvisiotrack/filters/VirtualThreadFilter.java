@@ -0,0 +1,84 @@
+package com.mlvisiotrack.filters;
+
+import com.mlvisiotrack.utils.JsonResponse;
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs the rest of the filter chain on a virtual thread when
+ * app.virtualThreads.enabled is set. The request goes async and the Tomcat
+ * thread returns to its pool. Blocking JDBC work then parks a cheap virtual
+ * thread, and the Hikari pool size bounds how many requests reach MySQL at once.
+ */
+public class VirtualThreadFilter implements Filter {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadFilter.class);
+    private ExecutorService executor;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        Properties appProperties = (Properties) filterConfig.getServletContext().getAttribute("appProperties");
+
+        if (Boolean.parseBoolean(appProperties.getProperty("app.virtualThreads.enabled", "false"))) {
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+            logger.info("Dispatching requests on virtual threads");
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+
+        // Disabled, or not the original dispatch: stay on the container thread
+        if (executor == null || request.isAsyncStarted() || request.getDispatcherType() != DispatcherType.REQUEST) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(0); // Waiting is bounded by the Hikari connection timeout instead
+
+        try {
+            executor.execute(() -> {
+                try {
+                    chain.doFilter(request, response);
+                } catch (Exception e) {
+                    logger.error("Error handling request on virtual thread", e);
+                    sendError(response);
+                } finally {
+                    asyncContext.complete();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Only happens while the executor is shutting down
+            sendError(response);
+            asyncContext.complete();
+        }
+    }
+
+    private void sendError(ServletResponse response) {
+        if (response.isCommitted()) {
+            return;
+        }
+        try {
+            response.resetBuffer();
+            JsonResponse.sendError((HttpServletResponse) response, 500, "Internal server error");
+        } catch (IOException | IllegalStateException e) {
+            logger.warn("Failed to send error response", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+}
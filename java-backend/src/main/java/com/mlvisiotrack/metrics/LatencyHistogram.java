@@ -0,0 +1,68 @@
+package com.mlvisiotrack.metrics;
+
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram. Recording is a short bound scan plus two
+ * LongAdder increments, so concurrent callers never contend on a lock.
+ * Buckets are exported cumulatively in Prometheus format, in seconds.
+ */
+public class LatencyHistogram {
+    private static final double[] BOUNDS_SECONDS = {
+        0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30
+    };
+    private static final long[] BOUNDS_NANOS = new long[BOUNDS_SECONDS.length];
+    private static final String[] BOUND_LABELS = new String[BOUNDS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BOUNDS_SECONDS.length; i++) {
+            BOUNDS_NANOS[i] = (long) (BOUNDS_SECONDS[i] * TimeUnit.SECONDS.toNanos(1));
+            BOUND_LABELS[i] = BigDecimal.valueOf(BOUNDS_SECONDS[i]).toPlainString();
+        }
+    }
+
+    // One extra slot for observations above the largest bound
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_NANOS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        int i = 0;
+        while (i < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[i]) {
+            i++;
+        }
+        buckets[i].increment();
+        sumNanos.add(nanos);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    // Writes name_bucket, name_sum and name_count; labels is the inner label list, possibly empty
+    void writeTo(PrintWriter out, String name, String labels) {
+        String separator = labels.isEmpty() ? "" : ",";
+        long cumulative = 0;
+
+        for (int i = 0; i < BOUNDS_SECONDS.length; i++) {
+            cumulative += buckets[i].sum();
+            out.printf("%s_bucket{%s%sle=\"%s\"} %d\n", name, labels, separator, BOUND_LABELS[i], cumulative);
+        }
+        cumulative += buckets[BOUNDS_SECONDS.length].sum();
+        out.printf("%s_bucket{%s%sle=\"+Inf\"} %d\n", name, labels, separator, cumulative);
+        out.printf("%s_sum{%s} %s\n", name, labels, sumNanos.sum() / 1e9);
+        out.printf("%s_count{%s} %d\n", name, labels, cumulative);
+    }
+}
@@ -0,0 +1,50 @@
+package com.mlvisiotrack.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency, row count and error count for one DAO method. Open a Call as the
+ * first resource of the method's try-with-resources and report rows before
+ * returning; a call closed without rows counts as an error.
+ */
+public class MethodMetrics {
+    private final String dao;
+    private final String method;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    MethodMetrics(String dao, String method) {
+        this.dao = dao;
+        this.method = method;
+    }
+
+    public Call start() {
+        return new Call();
+    }
+
+    public String getDao() { return dao; }
+    public String getMethod() { return method; }
+    public LatencyHistogram getLatency() { return latency; }
+    public long getRows() { return rows.sum(); }
+    public long getErrors() { return errors.sum(); }
+
+    public class Call implements AutoCloseable {
+        private final long started = System.nanoTime();
+        private boolean completed;
+
+        // Marks the call successful and records how many rows it read or wrote
+        public void rows(long count) {
+            rows.add(count);
+            completed = true;
+        }
+
+        @Override
+        public void close() {
+            latency.record(System.nanoTime() - started);
+            if (!completed) {
+                errors.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.mlvisiotrack.metrics;
+
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * Process-wide registry of HTTP route, DAO method and connection pool metrics,
+ * rendered in the Prometheus text exposition format by MetricsServlet. DAO
+ * recorders are registered once (DAOs hold them in static fields); routes are
+ * looked up per request by their template, never by the raw path.
+ */
+public final class Metrics {
+    private static final ConcurrentMap<String, MethodMetrics> daoMethods = new ConcurrentSkipListMap<>();
+    private static final ConcurrentMap<String, PoolMetrics> pools = new ConcurrentSkipListMap<>();
+    private static final ConcurrentMap<String, RouteMetrics> routes = new ConcurrentSkipListMap<>();
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static final MetricsTrackerFactory poolTrackerFactory = Metrics::trackPool;
+
+    private Metrics() {}
+
+    public static MethodMetrics dao(String dao, String method) {
+        return daoMethods.computeIfAbsent(dao + "." + method, key -> new MethodMetrics(dao, method));
+    }
+
+    public static RouteMetrics route(String method, String route) {
+        return routes.computeIfAbsent(route + " " + method, key -> new RouteMetrics(method, route));
+    }
+
+    // Ordered by route, then method
+    public static Collection<RouteMetrics> getRoutes() {
+        return routes.values();
+    }
+
+    // Passed to HikariConfig.setMetricsTrackerFactory for every pool
+    public static MetricsTrackerFactory poolTrackerFactory() {
+        return poolTrackerFactory;
+    }
+
+    private static PoolMetrics trackPool(String poolName, PoolStats poolStats) {
+        PoolMetrics tracker = new PoolMetrics(poolName, poolStats);
+        pools.put(poolName, tracker);
+        return tracker;
+    }
+
+    public static void writePrometheus(PrintWriter out) {
+        writeRoutes(out);
+        writePools(out);
+        writeDaoMethods(out);
+        out.flush();
+    }
+
+    private static void writeRoutes(PrintWriter out) {
+        out.println("# HELP mlvisiotrack_http_requests_total Requests by route template and status class");
+        out.println("# TYPE mlvisiotrack_http_requests_total counter");
+        for (RouteMetrics route : routes.values()) {
+            for (int statusClass = 1; statusClass <= 5; statusClass++) {
+                long count = route.getStatusCount(statusClass);
+                if (count > 0) {
+                    out.printf("mlvisiotrack_http_requests_total{%s,status=\"%dxx\"} %d\n", labels(route), statusClass, count);
+                }
+            }
+        }
+
+        writeSummary(out, "mlvisiotrack_http_request_seconds", "Request latency, from the first filter to the last byte written",
+            1e6, RouteMetrics::getLatency);
+        writeSummary(out, "mlvisiotrack_http_auth_seconds", "Time spent in AuthFilter before the servlet ran",
+            1e6, RouteMetrics::getAuthTime);
+        writeSummary(out, "mlvisiotrack_http_serialization_seconds", "Time spent writing the JSON envelope",
+            1e6, RouteMetrics::getSerializationTime);
+        writeSummary(out, "mlvisiotrack_http_response_bytes", "Response body size as sent, after compression",
+            1, RouteMetrics::getResponseBytes);
+    }
+
+    // Histograms record in micros or bytes; divisor converts to the exported base unit
+    private static void writeSummary(PrintWriter out, String name, String help, double divisor,
+                                     Function<RouteMetrics, LogLinearHistogram> histogram) {
+        out.printf("# HELP %s %s\n", name, help);
+        out.printf("# TYPE %s summary\n", name);
+        for (RouteMetrics route : routes.values()) {
+            LogLinearHistogram.Snapshot snapshot = histogram.apply(route).snapshot();
+            if (snapshot.getCount() == 0) {
+                continue;
+            }
+            String labels = labels(route);
+            for (double quantile : QUANTILES) {
+                out.printf("%s{%s,quantile=\"%s\"} %s\n", name, labels, quantile, snapshot.percentile(quantile) / divisor);
+            }
+            out.printf("%s_sum{%s} %s\n", name, labels, snapshot.getSum() / divisor);
+            out.printf("%s_count{%s} %d\n", name, labels, snapshot.getCount());
+        }
+    }
+
+    private static void writePools(PrintWriter out) {
+        writeGauge(out, "mlvisiotrack_pool_connections_active", "Connections currently borrowed", "active");
+        writeGauge(out, "mlvisiotrack_pool_connections_idle", "Connections idle in the pool", "idle");
+        writeGauge(out, "mlvisiotrack_pool_connections_pending", "Threads waiting for a connection", "pending");
+        writeGauge(out, "mlvisiotrack_pool_connections_max", "Maximum pool size", "max");
+
+        out.println("# HELP mlvisiotrack_pool_connection_timeouts_total Connection requests that timed out");
+        out.println("# TYPE mlvisiotrack_pool_connection_timeouts_total counter");
+        for (PoolMetrics pool : pools.values()) {
+            out.printf("mlvisiotrack_pool_connection_timeouts_total{pool=\"%s\"} %d\n", pool.getPoolName(), pool.getTimeouts());
+        }
+
+        out.println("# HELP mlvisiotrack_pool_acquire_seconds Time spent waiting to borrow a connection");
+        out.println("# TYPE mlvisiotrack_pool_acquire_seconds histogram");
+        for (PoolMetrics pool : pools.values()) {
+            pool.getAcquireTime().writeTo(out, "mlvisiotrack_pool_acquire_seconds", "pool=\"" + pool.getPoolName() + "\"");
+        }
+
+        out.println("# HELP mlvisiotrack_pool_usage_seconds Time a connection was held before being returned");
+        out.println("# TYPE mlvisiotrack_pool_usage_seconds histogram");
+        for (PoolMetrics pool : pools.values()) {
+            pool.getUsageTime().writeTo(out, "mlvisiotrack_pool_usage_seconds", "pool=\"" + pool.getPoolName() + "\"");
+        }
+    }
+
+    private static void writeGauge(PrintWriter out, String name, String help, String field) {
+        out.printf("# HELP %s %s\n", name, help);
+        out.printf("# TYPE %s gauge\n", name);
+        for (PoolMetrics pool : pools.values()) {
+            PoolStats stats = pool.getPoolStats();
+            int value;
+            switch (field) {
+                case "active": value = stats.getActiveConnections(); break;
+                case "idle": value = stats.getIdleConnections(); break;
+                case "pending": value = stats.getPendingThreads(); break;
+                default: value = stats.getMaxConnections();
+            }
+            out.printf("%s{pool=\"%s\"} %d\n", name, pool.getPoolName(), value);
+        }
+    }
+
+    private static void writeDaoMethods(PrintWriter out) {
+        out.println("# HELP mlvisiotrack_dao_call_seconds DAO method latency, including connection acquisition");
+        out.println("# TYPE mlvisiotrack_dao_call_seconds histogram");
+        for (MethodMetrics method : daoMethods.values()) {
+            method.getLatency().writeTo(out, "mlvisiotrack_dao_call_seconds", labels(method));
+        }
+
+        out.println("# HELP mlvisiotrack_dao_rows_total Rows read or written by DAO methods");
+        out.println("# TYPE mlvisiotrack_dao_rows_total counter");
+        for (MethodMetrics method : daoMethods.values()) {
+            out.printf("mlvisiotrack_dao_rows_total{%s} %d\n", labels(method), method.getRows());
+        }
+
+        out.println("# HELP mlvisiotrack_dao_errors_total DAO method calls that threw");
+        out.println("# TYPE mlvisiotrack_dao_errors_total counter");
+        for (MethodMetrics method : daoMethods.values()) {
+            out.printf("mlvisiotrack_dao_errors_total{%s} %d\n", labels(method), method.getErrors());
+        }
+    }
+
+    private static String labels(RouteMetrics route) {
+        return "method=\"" + route.getMethod() + "\",route=\"" + route.getRoute() + "\"";
+    }
+
+    private static String labels(MethodMetrics method) {
+        return "dao=\"" + method.getDao() + "\",method=\"" + method.getMethod() + "\"";
+    }
+}
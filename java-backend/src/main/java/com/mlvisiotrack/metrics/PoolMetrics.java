@@ -0,0 +1,46 @@
+package com.mlvisiotrack.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hikari callback target for one pool. Hikari calls these on every borrow and
+ * return, so they only touch lock-free recorders; gauges are read from the
+ * pool's own PoolStats at scrape time.
+ */
+public class PoolMetrics implements IMetricsTracker {
+    private final String poolName;
+    private final PoolStats poolStats;
+    private final LatencyHistogram acquireTime = new LatencyHistogram();
+    private final LatencyHistogram usageTime = new LatencyHistogram();
+    private final LongAdder timeouts = new LongAdder();
+
+    PoolMetrics(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        acquireTime.record(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        usageTime.record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+        timeouts.increment();
+    }
+
+    public String getPoolName() { return poolName; }
+    public PoolStats getPoolStats() { return poolStats; }
+    public LatencyHistogram getAcquireTime() { return acquireTime; }
+    public LatencyHistogram getUsageTime() { return usageTime; }
+    public long getTimeouts() { return timeouts.sum(); }
+}
@@ -0,0 +1,54 @@
+package com.mlvisiotrack.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Request counters and percentile histograms for one method and route
+ * template. Times are kept in microseconds, sizes in bytes as sent on the wire.
+ */
+public class RouteMetrics {
+    private final String method;
+    private final String route;
+    private final LogLinearHistogram latency = new LogLinearHistogram();
+    private final LogLinearHistogram authTime = new LogLinearHistogram();
+    private final LogLinearHistogram serializationTime = new LogLinearHistogram();
+    private final LogLinearHistogram responseBytes = new LogLinearHistogram();
+    // Indexed by status / 100; slot 0 collects anything outside 1xx-5xx
+    private final LongAdder[] statusClasses = new LongAdder[6];
+
+    RouteMetrics(String method, String route) {
+        this.method = method;
+        this.route = route;
+        for (int i = 0; i < statusClasses.length; i++) {
+            statusClasses[i] = new LongAdder();
+        }
+    }
+
+    // authNanos and serializationNanos are zero when the request never reached that stage
+    public void record(int status, long totalNanos, long authNanos, long serializationNanos, long bytes) {
+        latency.record(TimeUnit.NANOSECONDS.toMicros(totalNanos));
+        if (authNanos > 0) {
+            authTime.record(TimeUnit.NANOSECONDS.toMicros(authNanos));
+        }
+        if (serializationNanos > 0) {
+            serializationTime.record(TimeUnit.NANOSECONDS.toMicros(serializationNanos));
+        }
+        responseBytes.record(bytes);
+
+        int statusClass = status / 100;
+        statusClasses[statusClass >= 1 && statusClass <= 5 ? statusClass : 0].increment();
+    }
+
+    public String getMethod() { return method; }
+    public String getRoute() { return route; }
+    public LogLinearHistogram getLatency() { return latency; }
+    public LogLinearHistogram getAuthTime() { return authTime; }
+    public LogLinearHistogram getSerializationTime() { return serializationTime; }
+    public LogLinearHistogram getResponseBytes() { return responseBytes; }
+
+    // Count for 1..5 (1xx..5xx), or 0 for out-of-range codes
+    public long getStatusCount(int statusClass) {
+        return statusClasses[statusClass].sum();
+    }
+}
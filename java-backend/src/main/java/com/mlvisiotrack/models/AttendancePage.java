@@ -0,0 +1,18 @@
+package com.mlvisiotrack.models;
+
+import java.util.List;
+
+public class AttendancePage {
+    private final List<AttendanceRecord> records;
+    private final AttendanceCursor next;
+    
+    public AttendancePage(List<AttendanceRecord> records, AttendanceCursor next) {
+        this.records = records;
+        this.next = next;
+    }
+    
+    public List<AttendanceRecord> getRecords() { return records; }
+    
+    // Null when this is the last page
+    public AttendanceCursor getNext() { return next; }
+}
@@ -0,0 +1,66 @@
+package com.mlvisiotrack.models;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class DailyAttendance {
+    private String studentId;
+    private LocalDate date;
+    private String studentName;
+    private String registrationNumber;
+    private String department;
+    private LocalDateTime firstScan;
+    private LocalDateTime lastScan;
+    private int scanCount;
+    private Map<String, Integer> deviceCounts = new LinkedHashMap<>();
+    
+    // Constructors
+    public DailyAttendance() {}
+    
+    public DailyAttendance(String studentId, LocalDate date) {
+        this.studentId = studentId;
+        this.date = date;
+    }
+    
+    // Merges one device's rollup row into the day
+    public void addDevice(String deviceId, LocalDateTime deviceFirstScan, LocalDateTime deviceLastScan, int deviceScanCount) {
+        if (firstScan == null || deviceFirstScan.isBefore(firstScan)) {
+            firstScan = deviceFirstScan;
+        }
+        if (lastScan == null || deviceLastScan.isAfter(lastScan)) {
+            lastScan = deviceLastScan;
+        }
+        scanCount += deviceScanCount;
+        deviceCounts.merge(deviceId, deviceScanCount, Integer::sum);
+    }
+    
+    // Getters and Setters
+    public String getStudentId() { return studentId; }
+    public void setStudentId(String studentId) { this.studentId = studentId; }
+    
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+    
+    public String getStudentName() { return studentName; }
+    public void setStudentName(String studentName) { this.studentName = studentName; }
+    
+    public String getRegistrationNumber() { return registrationNumber; }
+    public void setRegistrationNumber(String registrationNumber) { this.registrationNumber = registrationNumber; }
+    
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+    
+    public LocalDateTime getFirstScan() { return firstScan; }
+    public void setFirstScan(LocalDateTime firstScan) { this.firstScan = firstScan; }
+    
+    public LocalDateTime getLastScan() { return lastScan; }
+    public void setLastScan(LocalDateTime lastScan) { this.lastScan = lastScan; }
+    
+    public int getScanCount() { return scanCount; }
+    public void setScanCount(int scanCount) { this.scanCount = scanCount; }
+    
+    public Map<String, Integer> getDeviceCounts() { return deviceCounts; }
+    public void setDeviceCounts(Map<String, Integer> deviceCounts) { this.deviceCounts = deviceCounts; }
+}
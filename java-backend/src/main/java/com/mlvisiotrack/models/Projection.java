@@ -0,0 +1,70 @@
+package com.mlvisiotrack.models;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The fields a listing returns, from its {@code fields} parameter: "full" (the
+ * default), "summary" for the frontend tables, or a comma-separated list of
+ * JSON property names. DAOs read the narrower summary columns whenever every
+ * requested field is among them; the JSON output holds exactly the requested
+ * fields.
+ */
+public class Projection {
+    public static final Projection FULL = new Projection(null, false);
+
+    public static final Set<String> USER_FIELDS = Set.of(
+        "id", "registrationNumber", "adminId", "name", "email", "role", "department", "year", "type",
+        "birthDate", "profilePicture", "adminLevel", "active", "createdAt", "updatedAt");
+    public static final Set<String> USER_SUMMARY_FIELDS = Set.of(
+        "id", "registrationNumber", "adminId", "name", "email", "role", "department", "year", "type");
+
+    public static final Set<String> ATTENDANCE_FIELDS = Set.of(
+        "id", "studentId", "deviceId", "timestamp", "studentName", "registrationNumber", "department",
+        "status", "remarks");
+    // Without the joined student details
+    public static final Set<String> ATTENDANCE_SUMMARY_FIELDS = Set.of(
+        "id", "studentId", "deviceId", "timestamp", "status");
+
+    private final Set<String> fields;
+    private final boolean summaryColumns;
+
+    private Projection(Set<String> fields, boolean summaryColumns) {
+        this.fields = fields;
+        this.summaryColumns = summaryColumns;
+    }
+
+    public static Projection forUsers(String parameter) {
+        return parse(parameter, USER_FIELDS, USER_SUMMARY_FIELDS);
+    }
+
+    public static Projection forAttendance(String parameter) {
+        return parse(parameter, ATTENDANCE_FIELDS, ATTENDANCE_SUMMARY_FIELDS);
+    }
+
+    private static Projection parse(String parameter, Set<String> known, Set<String> summary) {
+        if (parameter == null || parameter.isBlank() || parameter.equals("full")) {
+            return FULL;
+        }
+        if (parameter.equals("summary")) {
+            return new Projection(summary, true);
+        }
+
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : parameter.split(",")) {
+            String name = field.trim();
+            if (!known.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "'");
+            }
+            fields.add(name);
+        }
+        return new Projection(fields, summary.containsAll(fields));
+    }
+
+    public boolean isFull() { return fields == null; }
+
+    // Null for the full projection
+    public Set<String> getFields() { return fields; }
+
+    public boolean usesSummaryColumns() { return summaryColumns; }
+}
@@ -1,9 +1,20 @@
 package com.mlvisiotrack.servlets;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mlvisiotrack.dao.AttendanceBatchWriter;
 import com.mlvisiotrack.dao.AttendanceDAO;
+import com.mlvisiotrack.dao.DuplicateScanWindow;
+import com.mlvisiotrack.filters.CompressionFilter;
+import com.mlvisiotrack.models.AttendanceCursor;
+import com.mlvisiotrack.models.AttendancePage;
 import com.mlvisiotrack.models.AttendanceRecord;
+import com.mlvisiotrack.models.DailyAttendance;
+import com.mlvisiotrack.models.Projection;
+import com.mlvisiotrack.utils.CsvWriter;
+import com.mlvisiotrack.utils.DataVersion;
 import com.mlvisiotrack.utils.JsonResponse;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
@@ -12,21 +23,52 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
 
 public class AttendanceServlet extends HttpServlet {
     private static final Logger logger = LoggerFactory.getLogger(AttendanceServlet.class);
+    // Scan times outside this range are clock errors (an unset RTC, a unit mix-up), not real scans
+    private static final LocalDateTime EARLIEST_SCAN = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final Duration MAX_CLOCK_AHEAD = Duration.ofDays(1);
     private ObjectMapper objectMapper;
     private AttendanceDAO attendanceDAO;
+    private AttendanceBatchWriter batchWriter;
+    private DuplicateScanWindow duplicateScanWindow;
+    private int bulkChunkSize;
+    private int defaultPageSize;
+    private int maxPageSize;
     
     @Override
     public void init() throws ServletException {
-        objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper = JsonResponse.getMapper();
         attendanceDAO = new AttendanceDAO();
+        batchWriter = (AttendanceBatchWriter) getServletContext().getAttribute("attendanceBatchWriter");
+        duplicateScanWindow = (DuplicateScanWindow) getServletContext().getAttribute("duplicateScanWindow");
+        
+        Properties appProperties = (Properties) getServletContext().getAttribute("appProperties");
+        bulkChunkSize = Integer.parseInt(appProperties.getProperty("attendance.bulk.chunkSize", "500"));
+        defaultPageSize = Integer.parseInt(appProperties.getProperty("attendance.page.defaultSize", "200"));
+        maxPageSize = Integer.parseInt(appProperties.getProperty("attendance.page.maxSize", "1000"));
     }
     
     @Override
@@ -38,6 +80,8 @@ public class AttendanceServlet extends HttpServlet {
         try {
             if ("/logAttendance".equals(pathInfo)) {
                 handleLogAttendance(request, response);
+            } else if ("/logAttendanceBatch".equals(pathInfo)) {
+                handleLogAttendanceBatch(request, response);
             } else {
                 JsonResponse.sendError(response, 404, "Endpoint not found");
             }
@@ -56,6 +100,10 @@ public class AttendanceServlet extends HttpServlet {
         try {
             if ("/getAttendance".equals(pathInfo)) {
                 handleGetAttendance(request, response);
+            } else if ("/export".equals(pathInfo)) {
+                handleExportAttendance(request, response);
+            } else if ("/daily".equals(pathInfo)) {
+                handleGetDailyAttendance(request, response);
             } else if (pathInfo != null && pathInfo.startsWith("/student/")) {
                 handleGetStudentAttendance(request, response);
             } else if (pathInfo != null && pathInfo.startsWith("/date/")) {
@@ -67,6 +115,10 @@ public class AttendanceServlet extends HttpServlet {
             }
         } catch (Exception e) {
             logger.error("Error in AttendanceServlet GET", e);
+            if (response.isCommitted()) {
+                // A streamed response already went out; abort the connection instead
+                throw new ServletException(e);
+            }
             JsonResponse.sendError(response, 500, "Internal server error");
         }
     }
@@ -103,11 +155,158 @@ public class AttendanceServlet extends HttpServlet {
             return;
         }
         
-        AttendanceRecord record = attendanceDAO.logAttendance(studentId, deviceId);
+        // Devices may send the time of the scan; fall back to arrival time
+        Object timestampValue = requestData.get("timestamp");
+        LocalDateTime timestamp = timestampValue != null ? parseScanTimestamp(timestampValue.toString()) : LocalDateTime.now();
+        if (timestamp == null) {
+            JsonResponse.sendError(response, 400, "Invalid timestamp");
+            return;
+        }
+        
+        AttendanceRecord record;
+        try {
+            // Repeat recognitions of the same student at the same reader get the original record
+            record = duplicateScanWindow.log(studentId, deviceId, timestamp, 
+                                            () -> writeScan(studentId, deviceId, timestamp));
+        } catch (RejectedExecutionException e) {
+            response.setHeader("Retry-After", "1");
+            JsonResponse.sendError(response, 503, "Attendance queue is full, retry shortly");
+            return;
+        }
         
         JsonResponse.sendSuccess(response, record, "Attendance logged successfully", 201);
     }
     
+    private AttendanceRecord writeScan(String studentId, String deviceId, LocalDateTime timestamp) throws SQLException {
+        if (batchWriter != null) {
+            return batchWriter.log(studentId, deviceId, timestamp);
+        }
+        return attendanceDAO.logAttendance(studentId, deviceId, timestamp);
+    }
+    
+    /**
+     * ESP32 endpoint for replaying buffered scans, as a JSON array or NDJSON
+     * stream. The whole body is parsed before anything is written, so no
+     * ingest connection waits on a slow upload, and the write is all or
+     * nothing: a device whose replay fails resends it without duplicating scans.
+     */
+    private void handleLogAttendanceBatch(HttpServletRequest request, HttpServletResponse response) 
+            throws Exception {
+        
+        List<AttendanceRecord> scans = new ArrayList<>();
+        int skipped = 0;
+        
+        try (JsonParser parser = objectMapper.getFactory().createParser(request.getInputStream())) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                // Top-level array brackets are optional; NDJSON is a sequence of root objects
+                if (token == JsonToken.START_ARRAY || token == JsonToken.END_ARRAY) {
+                    continue;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    skipped++;
+                    continue;
+                }
+                
+                AttendanceRecord record = readScan(parser);
+                if (record == null) {
+                    skipped++;
+                    continue;
+                }
+                
+                scans.add(record);
+            }
+        } catch (JsonProcessingException e) {
+            JsonResponse.sendError(response, 400, "Malformed scan payload; no scans were stored");
+            return;
+        }
+        
+        int inserted = attendanceDAO.logAttendanceBulk(scans, bulkChunkSize);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("inserted", inserted);
+        result.put("skipped", skipped);
+        
+        JsonResponse.sendSuccess(response, result, "Attendance batch logged successfully", 201);
+    }
+    
+    // Reads one {student_id, device_id, timestamp} object; returns null if it is incomplete
+    private AttendanceRecord readScan(JsonParser parser) throws IOException {
+        String studentId = null;
+        String deviceId = null;
+        String timestampText = null;
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            
+            switch (field) {
+                case "student_id":
+                    studentId = parser.getValueAsString();
+                    break;
+                case "device_id":
+                    deviceId = parser.getValueAsString();
+                    break;
+                case "timestamp":
+                    timestampText = parser.getValueAsString();
+                    break;
+                default:
+                    if (value.isStructStart()) {
+                        parser.skipChildren();
+                    }
+            }
+        }
+        
+        if (studentId == null || deviceId == null) {
+            return null;
+        }
+        
+        LocalDateTime timestamp = timestampText != null ? parseScanTimestamp(timestampText) : LocalDateTime.now();
+        if (timestamp == null) {
+            return null;
+        }
+        
+        AttendanceRecord record = new AttendanceRecord(studentId, deviceId);
+        record.setTimestamp(timestamp);
+        return record;
+    }
+    
+    /**
+     * Parses a device-supplied scan time into server-local time, the zone every
+     * stored timestamp uses. Epoch values (seconds, or milliseconds when 13 or
+     * more digits) and ISO-8601 date-times with an offset are instants and are
+     * converted; ISO-8601 date-times without an offset are taken as server-local
+     * already. Returns null when unparseable or outside the plausible range.
+     */
+    private LocalDateTime parseScanTimestamp(String value) {
+        LocalDateTime timestamp = null;
+        try {
+            if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+                long epoch = Long.parseLong(value);
+                Instant instant = value.length() >= 13 ? Instant.ofEpochMilli(epoch) : Instant.ofEpochSecond(epoch);
+                timestamp = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+            } else {
+                timestamp = LocalDateTime.parse(value);
+            }
+        } catch (DateTimeException | NumberFormatException e) {
+            // Not a local date-time; try again with an explicit offset
+        }
+        
+        if (timestamp == null) {
+            try {
+                timestamp = OffsetDateTime.parse(value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        
+        if (timestamp.isBefore(EARLIEST_SCAN) || timestamp.isAfter(LocalDateTime.now().plus(MAX_CLOCK_AHEAD))) {
+            return null;
+        }
+        return timestamp;
+    }
+    
     // Frontend endpoint for getting all attendance
     private void handleGetAttendance(HttpServletRequest request, HttpServletResponse response) 
             throws Exception {
@@ -119,9 +318,123 @@ public class AttendanceServlet extends HttpServlet {
         LocalDate startDate = startDateStr != null ? LocalDate.parse(startDateStr) : null;
         LocalDate endDate = endDateStr != null ? LocalDate.parse(endDateStr) : null;
         
-        List<AttendanceRecord> records = attendanceDAO.getAllAttendance(startDate, endDate, department);
+        Projection projection;
+        try {
+            projection = Projection.forAttendance(request.getParameter("fields"));
+        } catch (IllegalArgumentException e) {
+            JsonResponse.sendError(response, 400, e.getMessage());
+            return;
+        }
+        
+        if (DataVersion.notModified(request, response, DataVersion.attendanceTag(startDate, endDate))) {
+            return;
+        }
+        
+        if (isStreamRequested(request)) {
+            JsonResponse.streamSuccess(response, projection, 
+                sink -> attendanceDAO.streamAllAttendance(startDate, endDate, department, projection, sink::write));
+            return;
+        }
+        
+        AttendanceCursor cursor;
+        int limit;
+        try {
+            cursor = readCursor(request);
+            limit = readPageLimit(request);
+        } catch (IllegalArgumentException e) {
+            JsonResponse.sendError(response, 400, e.getMessage());
+            return;
+        }
+        
+        AttendancePage page = attendanceDAO.getAllAttendance(startDate, endDate, department, cursor, limit, projection);
+        
+        sendPage(response, page, projection);
+    }
+    
+    // CSV export streamed from the database, gzip-compressed when the client accepts it
+    private void handleExportAttendance(HttpServletRequest request, HttpServletResponse response) 
+            throws Exception {
+        
+        // Only admins can export attendance
+        String userRole = (String) request.getAttribute("userRole");
+        if (!"admin".equals(userRole)) {
+            JsonResponse.sendError(response, 403, "Access denied. Admin privileges required.");
+            return;
+        }
+        
+        String startDateStr = request.getParameter("startDate");
+        String endDateStr = request.getParameter("endDate");
+        String department = request.getParameter("department");
+        
+        LocalDate startDate = startDateStr != null ? LocalDate.parse(startDateStr) : null;
+        LocalDate endDate = endDateStr != null ? LocalDate.parse(endDateStr) : null;
+        
+        // Same negotiation as CompressionFilter, so "gzip;q=0" is honoured
+        boolean gzip = "gzip".equals(CompressionFilter.negotiate(request.getHeader("Accept-Encoding")));
+        
+        // No Content-Length is set, so the container sends the body chunked
+        response.setContentType("text/csv");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"attendance-export.csv\"");
+        response.setHeader("Vary", "Accept-Encoding");
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        
+        // Sync flush so the first row reaches the client while the query is still running
+        OutputStream out = gzip ? new GZIPOutputStream(response.getOutputStream(), 8192, true) : response.getOutputStream();
+        CsvWriter csv = new CsvWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 65536));
+        
+        try {
+            csv.writeRow("id", "student_id", "registration_number", "student_name", "department", 
+                         "device_id", "timestamp", "status");
+            
+            int[] written = {0};
+            attendanceDAO.exportAllAttendance(startDate, endDate, department, (record, timestamp) -> {
+                csv.writeRow(record.getId(), record.getStudentId(), record.getRegistrationNumber(), 
+                             record.getStudentName(), record.getDepartment(), record.getDeviceId(), 
+                             timestamp, record.getStatus());
+                if (++written[0] == 1) {
+                    csv.flush();
+                    response.flushBuffer();
+                }
+            });
+            
+            // Flush buffered rows, then close to write the gzip trailer
+            csv.flush();
+            out.close();
+        } catch (Exception e) {
+            // Like JsonResponse.streamSuccess: drop the CSV and gzip headers so doGet can send a
+            // plain JSON error; once committed, doGet aborts the connection instead
+            if (!response.isCommitted()) {
+                response.reset();
+            }
+            throw e;
+        }
+    }
+    
+    // Per-student daily summary (first/last scan, scan counts per device) from the rollup table
+    private void handleGetDailyAttendance(HttpServletRequest request, HttpServletResponse response) 
+            throws Exception {
+        
+        // Only admins can view the daily report
+        String userRole = (String) request.getAttribute("userRole");
+        if (!"admin".equals(userRole)) {
+            JsonResponse.sendError(response, 403, "Access denied. Admin privileges required.");
+            return;
+        }
+        
+        String startDateStr = request.getParameter("startDate");
+        String endDateStr = request.getParameter("endDate");
+        String department = request.getParameter("department");
         
-        JsonResponse.sendSuccess(response, records);
+        // Default to today so an unfiltered request stays small
+        LocalDate startDate = startDateStr != null ? LocalDate.parse(startDateStr) : LocalDate.now();
+        LocalDate endDate = endDateStr != null ? LocalDate.parse(endDateStr) : startDate;
+        
+        List<DailyAttendance> days = attendanceDAO.getDailyAttendance(startDate, endDate, department);
+        
+        JsonResponse.sendSuccess(response, days);
     }
     
     private void handleGetStudentAttendance(HttpServletRequest request, HttpServletResponse response) 
@@ -145,9 +458,31 @@ public class AttendanceServlet extends HttpServlet {
         LocalDate startDate = startDateStr != null ? LocalDate.parse(startDateStr) : null;
         LocalDate endDate = endDateStr != null ? LocalDate.parse(endDateStr) : null;
         
-        List<AttendanceRecord> records = attendanceDAO.getAttendanceByStudent(studentId, startDate, endDate);
+        Projection projection;
+        try {
+            projection = Projection.forAttendance(request.getParameter("fields"));
+        } catch (IllegalArgumentException e) {
+            JsonResponse.sendError(response, 400, e.getMessage());
+            return;
+        }
         
-        JsonResponse.sendSuccess(response, records);
+        if (DataVersion.notModified(request, response, DataVersion.attendanceTag(startDate, endDate))) {
+            return;
+        }
+        
+        AttendanceCursor cursor;
+        int limit;
+        try {
+            cursor = readCursor(request);
+            limit = readPageLimit(request);
+        } catch (IllegalArgumentException e) {
+            JsonResponse.sendError(response, 400, e.getMessage());
+            return;
+        }
+        
+        AttendancePage page = attendanceDAO.getAttendanceByStudent(studentId, startDate, endDate, cursor, limit, projection);
+        
+        sendPage(response, page, projection);
     }
     
     private void handleGetAttendanceByDate(HttpServletRequest request, HttpServletResponse response) 
@@ -166,9 +501,70 @@ public class AttendanceServlet extends HttpServlet {
         
         String department = request.getParameter("department");
         
-        List<AttendanceRecord> records = attendanceDAO.getAttendanceByDate(date, department);
+        Projection projection;
+        try {
+            projection = Projection.forAttendance(request.getParameter("fields"));
+        } catch (IllegalArgumentException e) {
+            JsonResponse.sendError(response, 400, e.getMessage());
+            return;
+        }
+        
+        if (DataVersion.notModified(request, response, DataVersion.attendanceTag(date, date))) {
+            return;
+        }
+        
+        if (isStreamRequested(request)) {
+            JsonResponse.streamSuccess(response, projection, 
+                sink -> attendanceDAO.streamAttendanceByDate(date, department, projection, sink::write));
+            return;
+        }
+        
+        AttendanceCursor cursor;
+        int limit;
+        try {
+            cursor = readCursor(request);
+            limit = readPageLimit(request);
+        } catch (IllegalArgumentException e) {
+            JsonResponse.sendError(response, 400, e.getMessage());
+            return;
+        }
+        
+        AttendancePage page = attendanceDAO.getAttendanceByDate(date, department, cursor, limit, projection);
         
-        JsonResponse.sendSuccess(response, records);
+        sendPage(response, page, projection);
+    }
+    
+    // Export-style reads can ask for the whole result streamed row by row instead of a page
+    private boolean isStreamRequested(HttpServletRequest request) {
+        return "true".equalsIgnoreCase(request.getParameter("stream"));
+    }
+    
+    // Opaque keyset cursor from a previous page's "next", absent on the first page
+    private AttendanceCursor readCursor(HttpServletRequest request) {
+        String cursor = request.getParameter("cursor");
+        return cursor != null && !cursor.isEmpty() ? AttendanceCursor.decode(cursor) : null;
+    }
+    
+    private int readPageLimit(HttpServletRequest request) {
+        String limitStr = request.getParameter("limit");
+        if (limitStr == null) {
+            return defaultPageSize;
+        }
+        
+        try {
+            int limit = Integer.parseInt(limitStr);
+            if (limit < 1 || limit > maxPageSize) {
+                throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+            }
+            return limit;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit");
+        }
+    }
+    
+    private void sendPage(HttpServletResponse response, AttendancePage page, Projection projection) throws IOException {
+        String next = page.getNext() != null ? page.getNext().encode() : null;
+        JsonResponse.sendPage(response, page.getRecords(), next, projection);
     }
     
     private void handleGetAttendanceStats(HttpServletRequest request, HttpServletResponse response) 
@@ -192,6 +588,11 @@ public class AttendanceServlet extends HttpServlet {
         LocalDate startDate = startDateStr != null ? LocalDate.parse(startDateStr) : null;
         LocalDate endDate = endDateStr != null ? LocalDate.parse(endDateStr) : null;
         
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            JsonResponse.sendError(response, 400, "startDate must not be after endDate");
+            return;
+        }
+        
         Map<String, Object> stats = attendanceDAO.getAttendanceStats(studentId, startDate, endDate);
         
         JsonResponse.sendSuccess(response, stats);
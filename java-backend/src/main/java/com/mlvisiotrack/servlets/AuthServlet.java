@@ -3,10 +3,14 @@ package com.mlvisiotrack.servlets;
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mlvisiotrack.config.DatabaseConfig;
+import com.mlvisiotrack.config.Workload;
 import com.mlvisiotrack.dao.UserDAO;
 import com.mlvisiotrack.models.User;
 import com.mlvisiotrack.utils.JsonResponse;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,6 +23,13 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AuthServlet extends HttpServlet {
     private static final Logger logger = LoggerFactory.getLogger(AuthServlet.class);
@@ -26,12 +37,53 @@ public class AuthServlet extends HttpServlet {
     private UserDAO userDAO;
     private Properties appProperties;
     
+    // BCrypt checks run here so a login wave cannot starve the container's request threads
+    private ThreadPoolExecutor credentialExecutor;
+    private long maxQueueWaitMs;
+    private long asyncTimeoutMs;
+    private String retryAfterSeconds;
+    
+    @FunctionalInterface
+    private interface CredentialHandler {
+        void handle(HttpServletRequest request, HttpServletResponse response) throws Exception;
+    }
+    
     @Override
     public void init() throws ServletException {
-        objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper = JsonResponse.getMapper();
         userDAO = new UserDAO();
         appProperties = (Properties) getServletContext().getAttribute("appProperties");
+        
+        int defaultThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int threads = Integer.parseInt(appProperties.getProperty("auth.credentials.threads", String.valueOf(defaultThreads)));
+        int queueCapacity = Integer.parseInt(appProperties.getProperty("auth.credentials.queueCapacity", "64"));
+        maxQueueWaitMs = Long.parseLong(appProperties.getProperty("auth.credentials.maxQueueWaitMs", "5000"));
+        retryAfterSeconds = appProperties.getProperty("auth.credentials.retryAfterSeconds", "2");
+        // By default the longest a healthy check takes: queueing, then waiting for a connection, plus slack for BCrypt
+        long poolTimeoutMs = Long.parseLong(appProperties.getProperty("db.pool.interactive.connectionTimeoutMs", 
+            String.valueOf(Workload.INTERACTIVE.getDefaultConnectionTimeoutMs())));
+        asyncTimeoutMs = Long.parseLong(appProperties.getProperty("auth.credentials.asyncTimeoutMs", 
+            String.valueOf(maxQueueWaitMs + poolTimeoutMs + 5000)));
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        credentialExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "credential-worker-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @Override
+    public void destroy() {
+        credentialExecutor.shutdown();
+        try {
+            credentialExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
     
     @Override
@@ -43,7 +95,7 @@ public class AuthServlet extends HttpServlet {
         try {
             switch (pathInfo) {
                 case "/login":
-                    handleLogin(request, response);
+                    dispatchCredentialWork(request, response, this::handleLogin);
                     break;
                 case "/register":
                     handleRegister(request, response);
@@ -90,7 +142,7 @@ public class AuthServlet extends HttpServlet {
                     handleUpdateProfile(request, response);
                     break;
                 case "/change-password":
-                    handleChangePassword(request, response);
+                    dispatchCredentialWork(request, response, this::handleChangePassword);
                     break;
                 default:
                     JsonResponse.sendError(response, 404, "Endpoint not found");
@@ -101,6 +153,108 @@ public class AuthServlet extends HttpServlet {
         }
     }
     
+    /**
+     * Hands a password-checking request to the credential executor and releases
+     * the container thread. When the executor's queue is full, or a request has
+     * waited longer than auth.credentials.maxQueueWaitMs, the client gets 503
+     * with Retry-After instead.
+     */
+    private void dispatchCredentialWork(HttpServletRequest request, HttpServletResponse response, 
+                                        CredentialHandler handler) throws IOException {
+        
+        if (credentialExecutor.getQueue().remainingCapacity() == 0) {
+            sendBusy(response);
+            return;
+        }
+        
+        long enqueuedAt = System.nanoTime();
+        // Carry the caller's session so a password change still counts as a recent write
+        Runnable work = DatabaseConfig.inCurrentSession(() -> {
+            try {
+                if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - enqueuedAt) > maxQueueWaitMs) {
+                    sendBusy(response);
+                } else {
+                    handler.handle(request, response);
+                }
+            } catch (Exception e) {
+                logger.error("Error in AuthServlet", e);
+                try {
+                    JsonResponse.sendError(response, 500, "Internal server error");
+                } catch (IOException ioe) {
+                    logger.warn("Failed to send error response", ioe);
+                }
+            }
+        });
+        
+        // Already async on a virtual thread: parking here is cheap, so just wait
+        if (request.isAsyncStarted()) {
+            try {
+                credentialExecutor.submit(work).get();
+            } catch (RejectedExecutionException e) {
+                sendBusy(response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for credential check", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Credential check failed", e.getCause());
+            }
+            return;
+        }
+        
+        AsyncContext asyncContext = request.startAsync();
+        // A worker stuck past this (e.g. in a query with no statement timeout) must not hold the request forever.
+        // Whichever of the worker and the timeout finishes first answers and completes the request.
+        asyncContext.setTimeout(asyncTimeoutMs);
+        AtomicBoolean finished = new AtomicBoolean();
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (finished.compareAndSet(false, true)) {
+                    logger.warn("Credential check did not finish within {}ms", asyncTimeoutMs);
+                    if (!response.isCommitted()) {
+                        sendBusy(response);
+                    }
+                    asyncContext.complete();
+                }
+            }
+            
+            @Override
+            public void onComplete(AsyncEvent event) {}
+            
+            @Override
+            public void onError(AsyncEvent event) {}
+            
+            @Override
+            public void onStartAsync(AsyncEvent event) {}
+        });
+        
+        try {
+            credentialExecutor.execute(() -> {
+                try {
+                    if (!finished.get()) {
+                        work.run();
+                    }
+                } catch (RuntimeException e) {
+                    // Typically writing to a response the timeout already completed
+                    logger.warn("Credential check failed after its request ended", e);
+                } finally {
+                    if (finished.compareAndSet(false, true)) {
+                        asyncContext.complete();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            finished.set(true);
+            sendBusy(response);
+            asyncContext.complete();
+        }
+    }
+    
+    private void sendBusy(HttpServletResponse response) throws IOException {
+        response.setHeader("Retry-After", retryAfterSeconds);
+        JsonResponse.sendError(response, 503, "Too many login attempts in progress, retry shortly");
+    }
+    
     private void handleLogin(HttpServletRequest request, HttpServletResponse response) 
             throws Exception {
         
@@ -0,0 +1,84 @@
+package com.mlvisiotrack.servlets;
+
+import com.mlvisiotrack.metrics.Metrics;
+import com.mlvisiotrack.utils.JsonResponse;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Properties;
+
+/**
+ * Prometheus scrape endpoint. With http.metrics.token set, scrapers must send
+ * it as a bearer token. Without one, only direct loopback connections are
+ * served; requests relayed by a reverse proxy on the same host are refused,
+ * since they also arrive from loopback.
+ */
+public class MetricsServlet extends HttpServlet {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsServlet.class);
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private byte[] token;
+
+    @Override
+    public void init() throws ServletException {
+        Properties appProperties = (Properties) getServletContext().getAttribute("appProperties");
+        String configured = appProperties.getProperty("http.metrics.token", "").trim();
+        token = configured.isEmpty() ? null : configured.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        if (token != null ? !hasToken(request) : !isLocal(request)) {
+            JsonResponse.sendError(response, 403, token != null
+                ? "A valid metrics token is required"
+                : "Metrics are only available from localhost");
+            return;
+        }
+
+        try {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(CONTENT_TYPE);
+            response.setHeader("Cache-Control", "no-store");
+            Metrics.writePrometheus(response.getWriter());
+
+        } catch (Exception e) {
+            logger.error("Error in MetricsServlet GET", e);
+            if (!response.isCommitted()) {
+                response.reset();
+                JsonResponse.sendError(response, 500, "Internal server error");
+            }
+        }
+    }
+
+    private boolean hasToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return false;
+        }
+        // Constant-time, so the token cannot be guessed byte by byte from response times
+        return MessageDigest.isEqual(token, header.substring(7).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // The remote address is a literal IP, so this never triggers a DNS lookup
+    private boolean isLocal(HttpServletRequest request) {
+        // A proxy on this host connects from loopback on behalf of a remote client
+        if (request.getHeader("Forwarded") != null || request.getHeader("X-Forwarded-For") != null
+                || request.getHeader("X-Real-IP") != null) {
+            return false;
+        }
+        try {
+            return InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
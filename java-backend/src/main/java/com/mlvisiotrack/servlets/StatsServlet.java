@@ -0,0 +1,170 @@
+package com.mlvisiotrack.servlets;
+
+import com.mlvisiotrack.config.DatabaseConfig;
+import com.mlvisiotrack.dao.AttendanceBatchWriter;
+import com.mlvisiotrack.dao.DuplicateScanWindow;
+import com.mlvisiotrack.filters.CompressionStats;
+import com.mlvisiotrack.metrics.LogLinearHistogram;
+import com.mlvisiotrack.metrics.Metrics;
+import com.mlvisiotrack.metrics.RouteMetrics;
+import com.mlvisiotrack.utils.AuthTokenCache;
+import com.mlvisiotrack.utils.JsonResponse;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class StatsServlet extends HttpServlet {
+    private static final Logger logger = LoggerFactory.getLogger(StatsServlet.class);
+    private AttendanceBatchWriter batchWriter;
+    private DuplicateScanWindow duplicateScanWindow;
+
+    @Override
+    public void init() throws ServletException {
+        batchWriter = (AttendanceBatchWriter) getServletContext().getAttribute("attendanceBatchWriter");
+        duplicateScanWindow = (DuplicateScanWindow) getServletContext().getAttribute("duplicateScanWindow");
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        // Only admins can view runtime statistics
+        String userRole = (String) request.getAttribute("userRole");
+        if (!"admin".equals(userRole)) {
+            JsonResponse.sendError(response, 403, "Access denied. Admin privileges required.");
+            return;
+        }
+
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("http", getHttpStats());
+            stats.put("ingest", getIngestStats());
+            stats.put("dedup", getDedupStats());
+            stats.put("authCache", getAuthCacheStats());
+            stats.put("compression", getCompressionStats());
+            stats.put("database", getDatabaseStats());
+
+            JsonResponse.sendSuccess(response, stats);
+
+        } catch (Exception e) {
+            logger.error("Error in StatsServlet GET", e);
+            JsonResponse.sendError(response, 500, "Internal server error");
+        }
+    }
+
+    // Keyed by "METHOD /route/template"; times in milliseconds
+    private Map<String, Object> getHttpStats() {
+        Map<String, Object> http = new LinkedHashMap<>();
+
+        for (RouteMetrics route : Metrics.getRoutes()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            LogLinearHistogram.Snapshot latency = route.getLatency().snapshot();
+
+            entry.put("requests", latency.getCount());
+            Map<String, Object> status = new LinkedHashMap<>();
+            for (int statusClass = 1; statusClass <= 5; statusClass++) {
+                status.put(statusClass + "xx", route.getStatusCount(statusClass));
+            }
+            entry.put("status", status);
+            entry.put("latencyMs", percentiles(latency, 1000.0));
+            entry.put("authMs", percentiles(route.getAuthTime().snapshot(), 1000.0));
+            entry.put("serializationMs", percentiles(route.getSerializationTime().snapshot(), 1000.0));
+
+            LogLinearHistogram.Snapshot bytes = route.getResponseBytes().snapshot();
+            Map<String, Object> responseBytes = percentiles(bytes, 1.0);
+            responseBytes.put("total", bytes.getSum());
+            entry.put("responseBytes", responseBytes);
+
+            http.put(route.getMethod() + " " + route.getRoute(), entry);
+        }
+
+        return http;
+    }
+
+    private Map<String, Object> percentiles(LogLinearHistogram.Snapshot snapshot, double divisor) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", snapshot.getCount());
+        values.put("mean", snapshot.getMean() / divisor);
+        values.put("p50", snapshot.percentile(0.5) / divisor);
+        values.put("p90", snapshot.percentile(0.9) / divisor);
+        values.put("p99", snapshot.percentile(0.99) / divisor);
+        values.put("p999", snapshot.percentile(0.999) / divisor);
+        values.put("max", snapshot.getMax() / divisor);
+        return values;
+    }
+
+    private Map<String, Object> getIngestStats() {
+        Map<String, Object> ingest = new LinkedHashMap<>();
+        ingest.put("mode", batchWriter != null ? "batched" : "direct");
+
+        if (batchWriter != null) {
+            ingest.put("queueDepth", batchWriter.getQueueDepth());
+            ingest.put("scansWritten", batchWriter.getScansWritten());
+            ingest.put("batchesWritten", batchWriter.getBatchesWritten());
+            ingest.put("scansRejected", batchWriter.getScansRejected());
+        }
+
+        return ingest;
+    }
+
+    private Map<String, Object> getDedupStats() {
+        Map<String, Object> dedup = new LinkedHashMap<>();
+        long hits = duplicateScanWindow.getHits();
+        long misses = duplicateScanWindow.getMisses();
+
+        dedup.put("windowSeconds", duplicateScanWindow.getWindowSeconds());
+        dedup.put("hits", hits);
+        dedup.put("misses", misses);
+        dedup.put("hitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        dedup.put("trackedScans", duplicateScanWindow.getTrackedScans());
+
+        return dedup;
+    }
+
+    private Map<String, Object> getAuthCacheStats() {
+        Map<String, Object> authCache = new LinkedHashMap<>();
+        long hits = AuthTokenCache.getHits();
+        long misses = AuthTokenCache.getMisses();
+
+        authCache.put("enabled", AuthTokenCache.isEnabled());
+        authCache.put("hits", hits);
+        authCache.put("misses", misses);
+        authCache.put("hitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        authCache.put("evictions", AuthTokenCache.getEvictions());
+        authCache.put("size", AuthTokenCache.getSize());
+
+        return authCache;
+    }
+
+    private Map<String, Object> getCompressionStats() {
+        Map<String, Object> compression = new LinkedHashMap<>();
+        // Published by CompressionFilter.init; absent if the filter is not mapped
+        CompressionStats compressionStats = (CompressionStats) getServletContext().getAttribute("compressionStats");
+
+        if (compressionStats != null) {
+            compression.put("responsesCompressed", compressionStats.getResponsesCompressed());
+            compression.put("responsesSkipped", compressionStats.getResponsesSkipped());
+            compression.put("bytesIn", compressionStats.getBytesIn());
+            compression.put("bytesOut", compressionStats.getBytesOut());
+            compression.put("ratio", compressionStats.getRatio());
+            compression.put("compressMillis", compressionStats.getCompressMillis());
+        }
+
+        return compression;
+    }
+
+    private Map<String, Object> getDatabaseStats() {
+        Map<String, Object> database = new LinkedHashMap<>();
+        database.put("pools", DatabaseConfig.getPoolStats());
+        database.put("readReplicas", DatabaseConfig.getReplicaCount());
+        database.put("readFallbacks", DatabaseConfig.getReadFallbacks());
+        return database;
+    }
+}
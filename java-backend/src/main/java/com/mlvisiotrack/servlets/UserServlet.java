@@ -1,9 +1,10 @@
 package com.mlvisiotrack.servlets;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.mlvisiotrack.dao.UserDAO;
+import com.mlvisiotrack.models.Projection;
 import com.mlvisiotrack.models.User;
+import com.mlvisiotrack.utils.DataVersion;
 import com.mlvisiotrack.utils.JsonResponse;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServlet;
@@ -22,8 +23,7 @@ public class UserServlet extends HttpServlet {
     
     @Override
     public void init() throws ServletException {
-        objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper = JsonResponse.getMapper();
         userDAO = new UserDAO();
     }
     
@@ -44,9 +44,21 @@ public class UserServlet extends HttpServlet {
             String year = request.getParameter("year");
             String search = request.getParameter("search");
             
-            List<User> users = userDAO.findAll(role, department, year, search);
+            Projection projection;
+            try {
+                projection = Projection.forUsers(request.getParameter("fields"));
+            } catch (IllegalArgumentException e) {
+                JsonResponse.sendError(response, 400, e.getMessage());
+                return;
+            }
+            
+            if (DataVersion.notModified(request, response, DataVersion.usersTag())) {
+                return;
+            }
+            
+            List<User> users = userDAO.findAll(role, department, year, search, projection);
             
-            JsonResponse.sendSuccess(response, users);
+            JsonResponse.sendSuccess(response, users, projection);
             
         } catch (Exception e) {
             logger.error("Error in UserServlet GET", e);
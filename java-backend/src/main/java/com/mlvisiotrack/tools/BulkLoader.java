@@ -0,0 +1,163 @@
+package com.mlvisiotrack.tools;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+
+/**
+ * Appends rows to one table in large chunks. LOAD DATA LOCAL INFILE streams a
+ * tab-separated chunk from memory (the server needs local_infile=ON); the
+ * fallback is JDBC batches, which rewriteBatchedStatements=true turns into
+ * multi-row INSERTs. Values are written with toString(), nulls as \N.
+ */
+abstract class BulkLoader implements AutoCloseable {
+    protected final Connection conn;
+    protected final String table;
+    protected final String[] columns;
+    protected final int chunkRows;
+    private long rows;
+
+    BulkLoader(Connection conn, String table, String[] columns, int chunkRows) {
+        this.conn = conn;
+        this.table = table;
+        this.columns = columns;
+        this.chunkRows = chunkRows;
+    }
+
+    static BulkLoader create(Connection conn, boolean loadData, String table, int chunkRows, String... columns)
+            throws SQLException {
+        return loadData
+            ? new LoadDataLoader(conn, table, columns, chunkRows)
+            : new BatchInsertLoader(conn, table, columns, chunkRows);
+    }
+
+    void add(Object... values) throws SQLException {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException(table + " expects " + columns.length + " values");
+        }
+        append(values);
+        rows++;
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    protected abstract void append(Object[] values) throws SQLException;
+
+    protected abstract void flush() throws SQLException;
+
+    @Override
+    public void close() throws SQLException {
+        flush();
+    }
+
+    private static class LoadDataLoader extends BulkLoader {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 20);
+        private final StringBuilder line = new StringBuilder(256);
+        private final String sql;
+        private int pending;
+
+        LoadDataLoader(Connection conn, String table, String[] columns, int chunkRows) {
+            super(conn, table, columns, chunkRows);
+            this.sql = "LOAD DATA LOCAL INFILE 'generated.tsv' INTO TABLE " + table
+                + " CHARACTER SET utf8mb4 (" + String.join(", ", columns) + ")";
+        }
+
+        @Override
+        protected void append(Object[] values) throws SQLException {
+            line.setLength(0);
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    line.append('\t');
+                }
+                if (values[i] == null) {
+                    line.append("\\N");
+                } else {
+                    escape(values[i].toString());
+                }
+            }
+            line.append('\n');
+            buffer.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+
+            if (++pending >= chunkRows) {
+                flush();
+            }
+        }
+
+        // Default LOAD DATA escaping: backslash, tab and newline are backslash-escaped
+        private void escape(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\': line.append("\\\\"); break;
+                    case '\t': line.append("\\t"); break;
+                    case '\n': line.append("\\n"); break;
+                    default: line.append(c);
+                }
+            }
+        }
+
+        @Override
+        protected void flush() throws SQLException {
+            if (pending == 0) {
+                return;
+            }
+            try (Statement stmt = conn.createStatement()) {
+                // The driver sends this stream instead of reading the named file
+                stmt.unwrap(JdbcStatement.class).setLocalInfileInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+                stmt.execute(sql);
+            }
+            buffer.reset();
+            pending = 0;
+        }
+    }
+
+    private static class BatchInsertLoader extends BulkLoader {
+        private final PreparedStatement stmt;
+        private int pending;
+
+        BatchInsertLoader(Connection conn, String table, String[] columns, int chunkRows) throws SQLException {
+            super(conn, table, columns, chunkRows);
+            String placeholders = String.join(", ", Collections.nCopies(columns.length, "?"));
+            this.stmt = conn.prepareStatement("INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + placeholders + ")");
+        }
+
+        @Override
+        protected void append(Object[] values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                stmt.setObject(i + 1, values[i]);
+            }
+            stmt.addBatch();
+
+            if (++pending >= chunkRows) {
+                flush();
+            }
+        }
+
+        @Override
+        protected void flush() throws SQLException {
+            if (pending > 0) {
+                stmt.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                stmt.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,549 @@
+package com.mlvisiotrack.tools;
+
+import com.mlvisiotrack.config.DatabaseConfig;
+import com.mlvisiotrack.dao.AttendanceDAO;
+import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Loads a reproducible synthetic dataset (students, courses, lecturers, rooms,
+ * schedules, enrollments and raw scans) for query benchmarks and regression
+ * runs, then rebuilds the daily rollup for the generated range.
+ *
+ * Usage: DatasetGenerator [--students=5000] [--days=365] [--end=yyyy-MM-dd]
+ *        [--departments=6] [--coursesPerYear=4] [--seed=42] [--batchSize=10000]
+ *        [--method=auto|load|insert] [--password=student123] [--reset]
+ *
+ * The same seed, sizes and end date always produce the same rows. Generated
+ * rows are tagged with a GEN prefix (registration numbers, course codes,
+ * lecturer ids, room numbers) so --reset can remove them without touching
+ * real data.
+ */
+public class DatasetGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final String[] DEPARTMENTS = {
+        "Computer Science", "Electrical Engineering", "Business Administration", "Mechanical Engineering",
+        "Civil Engineering", "Mathematics", "Physics", "Chemistry"
+    };
+    private static final String[] YEARS = {"1st Year", "2nd Year", "3rd Year"};
+    private static final String[] FIRST_NAMES = {
+        "Amal", "Nimal", "Kasun", "Dilani", "Sachini", "Tharindu", "Ishara", "Ruwan", "Chathura", "Madhavi",
+        "Nadeesha", "Pradeep", "Sanduni", "Lahiru", "Hiruni", "Dinesh", "Gayani", "Ravindu", "Shehan", "Tharushi"
+    };
+    private static final String[] LAST_NAMES = {
+        "Perera", "Fernando", "Silva", "Jayasinghe", "Bandara", "Wickramasinghe", "Rathnayake", "Gunawardena",
+        "Dissanayake", "Herath", "Kumara", "Wijesekara", "Senanayake", "Abeysekara", "Karunaratne"
+    };
+    private static final String[] ROOM_TYPES = {"Lecture Hall", "Lecture Hall", "Tutorial Room", "Laboratory", "Computer Lab"};
+    private static final DayOfWeek[] WEEKDAYS = {
+        DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY
+    };
+    private static final DateTimeFormatter DATETIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] GENERATED_TABLES = {
+        "attendance", "attendance_daily_rollup", "enrollments", "schedules", "courses", "lecturers", "rooms", "users"
+    };
+
+    private final Options options;
+    private final long seed;
+
+    private final List<Course> courses = new ArrayList<>();
+    private final List<Room> rooms = new ArrayList<>();
+    private final List<Session> sessions = new ArrayList<>();
+    private final Map<DayOfWeek, List<Session>> sessionsByDay = new EnumMap<>(DayOfWeek.class);
+
+    DatasetGenerator(Options options) {
+        this.options = options;
+        this.seed = options.seed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Properties properties = loadProperties();
+
+        LocalDate startDate = options.end.minusDays(options.days - 1L);
+        logger.info("Generating {} students, {} to {} (seed {})", options.students, startDate, options.end, options.seed);
+
+        DatasetGenerator generator = new DatasetGenerator(options);
+        try (Connection conn = openBulkConnection(properties)) {
+            boolean loadData = generator.chooseMethod(conn);
+            logger.info("Bulk load path: {}", loadData ? "LOAD DATA LOCAL INFILE" : "batched INSERT");
+
+            generator.prepare(conn);
+            generator.load(conn, loadData, startDate);
+            generator.analyze(conn);
+        }
+
+        DatabaseConfig.initialize(properties);
+
+        try {
+            int rows = new AttendanceDAO().rebuildDailyRollup(startDate, options.end);
+            logger.info("Rollup rebuilt: {} rows", rows);
+        } finally {
+            DatabaseConfig.shutdown();
+        }
+
+        // The end date defaults to yesterday, so print it for reruns
+        logger.info("Reproduce with --seed={} --students={} --days={} --end={} --departments={} --coursesPerYear={}",
+            options.seed, options.students, options.days, options.end, options.departments, options.coursesPerYear);
+    }
+
+    // Own connection, since the pools have neither local infile nor batch rewriting enabled
+    private static Connection openBulkConnection(Properties properties) throws SQLException {
+        String url = String.format("jdbc:mysql://%s:%s/%s?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true"
+                + "&allowLoadLocalInfile=true&rewriteBatchedStatements=true",
+            properties.getProperty("db.host", "localhost"),
+            properties.getProperty("db.port", "3306"),
+            properties.getProperty("db.name", "mlvisiotrack"));
+
+        return DriverManager.getConnection(url,
+            properties.getProperty("db.username", "root"),
+            properties.getProperty("db.password", ""));
+    }
+
+    private boolean chooseMethod(Connection conn) throws SQLException {
+        if (!"auto".equals(options.method)) {
+            return "load".equals(options.method);
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SHOW GLOBAL VARIABLES LIKE 'local_infile'")) {
+            return rs.next() && "ON".equalsIgnoreCase(rs.getString(2));
+        }
+    }
+
+    private void prepare(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            if (options.reset) {
+                reset(stmt);
+            } else {
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM users WHERE registration_number LIKE 'GEN%'")) {
+                    if (rs.next() && rs.getLong(1) > 0) {
+                        throw new IllegalStateException("Generated data already present; rerun with --reset to replace it");
+                    }
+                }
+            }
+
+            // The generated rows are consistent by construction, so skip per-row checks while loading
+            stmt.execute("SET SESSION unique_checks = 0");
+            stmt.execute("SET SESSION foreign_key_checks = 0");
+        }
+    }
+
+    private void reset(Statement stmt) throws SQLException {
+        String generatedStudents = "SELECT id FROM users WHERE registration_number LIKE 'GEN%'";
+
+        stmt.executeUpdate("DELETE FROM attendance WHERE student_id IN (" + generatedStudents + ")");
+        stmt.executeUpdate("DELETE FROM attendance_daily_rollup WHERE student_id IN (" + generatedStudents + ")");
+        stmt.executeUpdate("DELETE FROM enrollments WHERE student_id IN (" + generatedStudents + ")");
+        stmt.executeUpdate("DELETE FROM schedules WHERE course_id IN (SELECT id FROM courses WHERE course_code LIKE 'GEN%')");
+        stmt.executeUpdate("DELETE FROM courses WHERE course_code LIKE 'GEN%'");
+        stmt.executeUpdate("DELETE FROM lecturers WHERE lecturer_id LIKE 'GEN%'");
+        stmt.executeUpdate("DELETE FROM rooms WHERE room_number LIKE 'GEN%'");
+        int removed = stmt.executeUpdate("DELETE FROM users WHERE registration_number LIKE 'GEN%'");
+        logger.info("Removed {} previously generated students and their data", removed);
+    }
+
+    void load(Connection conn, boolean loadData, LocalDate startDate) throws SQLException {
+        conn.setAutoCommit(false);
+        int chunk = options.batchSize;
+
+        try (BulkLoader lecturerLoader = BulkLoader.create(conn, loadData, "lecturers", chunk,
+                 "id", "lecturer_id", "name", "email", "department");
+             BulkLoader roomLoader = BulkLoader.create(conn, loadData, "rooms", chunk,
+                 "id", "room_number", "room_name", "building", "capacity", "room_type");
+             BulkLoader courseLoader = BulkLoader.create(conn, loadData, "courses", chunk,
+                 "id", "course_code", "course_name", "department", "year", "type", "credits")) {
+            generateCatalog(lecturerLoader, roomLoader, courseLoader);
+        }
+
+        try (BulkLoader scheduleLoader = BulkLoader.create(conn, loadData, "schedules", chunk,
+                 "id", "course_id", "lecturer_id", "room_id", "day_of_week", "start_time", "end_time", "start_date", "end_date")) {
+            generateSchedules(scheduleLoader, startDate);
+        }
+        conn.commit();
+        logger.info("Catalog: {} courses, {} rooms, {} weekly sessions", courses.size(), rooms.size(), sessions.size());
+
+        try (BulkLoader userLoader = BulkLoader.create(conn, loadData, "users", chunk,
+                 "id", "registration_number", "name", "email", "password_hash", "role", "department", "year", "type", "birth_date");
+             BulkLoader enrollmentLoader = BulkLoader.create(conn, loadData, "enrollments", chunk,
+                 "id", "student_id", "course_id", "enrollment_date", "status")) {
+            generateStudents(userLoader, enrollmentLoader, startDate);
+            conn.commit();
+            logger.info("Loaded {} students and {} enrollments", userLoader.getRows(), enrollmentLoader.getRows());
+        }
+
+        long started = System.nanoTime();
+        long scans;
+        try (BulkLoader attendanceLoader = BulkLoader.create(conn, loadData, "attendance", chunk,
+                 "student_id", "device_id", "timestamp")) {
+            generateAttendance(attendanceLoader, conn, startDate);
+            scans = attendanceLoader.getRows();
+        }
+        conn.commit();
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        logger.info("Loaded {} scans in {}s ({} rows/s)", scans, String.format("%.1f", seconds),
+            Math.round(scans / Math.max(seconds, 0.001)));
+    }
+
+    private void generateCatalog(BulkLoader lecturerLoader, BulkLoader roomLoader, BulkLoader courseLoader) throws SQLException {
+        SplittableRandom random = random("catalog");
+        int departments = Math.min(options.departments, DEPARTMENTS.length);
+        int lecturerCount = 0;
+
+        for (int d = 0; d < departments; d++) {
+            String department = DEPARTMENTS[d];
+
+            // One lecturer per two courses, shared across years
+            int perDepartment = YEARS.length * options.coursesPerYear;
+            String[] lecturerIds = new String[perDepartment];
+            for (int l = 0; l < perDepartment; l++) {
+                lecturerCount++;
+                lecturerIds[l] = uuid("lecturer", lecturerCount);
+                String name = name(random);
+                lecturerLoader.add(lecturerIds[l], String.format("GENL%05d", lecturerCount), "Dr. " + name,
+                    String.format("genl%05d@lecturers.example.edu", lecturerCount), department);
+            }
+
+            int c = 0;
+            for (int y = 0; y < YEARS.length; y++) {
+                for (int t = 0; t < 2; t++) {
+                    for (int n = 0; n < options.coursesPerYear; n++) {
+                        String code = String.format("GEN%d%d%d%02d", d, y + 1, t, n);
+                        Course course = new Course(uuid("course", code), d, y, t == 1, lecturerIds[c++ % perDepartment]);
+                        courses.add(course);
+                        courseLoader.add(course.id, code, department + " " + (y + 1) + (char) ('A' + n) + (t == 1 ? " (PT)" : ""),
+                            department, YEARS[y], t == 1 ? "Part Time" : "Full Time", 2 + random.nextInt(3));
+                    }
+                }
+            }
+        }
+
+        // Enough rooms that each holds about three weekly sessions per day slot
+        int roomCount = Math.max(4, courses.size() / 3);
+        for (int r = 0; r < roomCount; r++) {
+            String roomNumber = String.format("GEN-%c%03d", (char) ('A' + r % 4), r + 1);
+            String type = ROOM_TYPES[random.nextInt(ROOM_TYPES.length)];
+            Room room = new Room(uuid("room", r), "ESP32-" + roomNumber);
+            rooms.add(room);
+            roomLoader.add(room.id, roomNumber, type + " " + (r + 1), "Block " + (char) ('A' + r % 4),
+                "Lecture Hall".equals(type) ? 120 : 40, type);
+        }
+    }
+
+    private void generateSchedules(BulkLoader loader, LocalDate startDate) throws SQLException {
+        SplittableRandom random = random("schedules");
+        int roomCursor = 0;
+
+        for (int i = 0; i < courses.size(); i++) {
+            Course course = courses.get(i);
+
+            // Two sessions a week on different days; part-time courses meet in the evening
+            int firstDay = random.nextInt(WEEKDAYS.length);
+            int secondDay = (firstDay + 2 + random.nextInt(2)) % WEEKDAYS.length;
+            for (int day : new int[] {firstDay, secondDay}) {
+                LocalTime start = course.partTime
+                    ? LocalTime.of(17 + random.nextInt(2), 30)
+                    : LocalTime.of(8 + 2 * random.nextInt(5), 0);
+                LocalTime end = start.plusMinutes(course.partTime ? 120 : 90);
+                Room room = rooms.get(roomCursor++ % rooms.size());
+
+                Session session = new Session(course, room, WEEKDAYS[day], start);
+                sessions.add(session);
+                sessionsByDay.computeIfAbsent(session.day, key -> new ArrayList<>()).add(session);
+
+                loader.add(uuid("schedule", course.id + day), course.id, course.lecturerId, room.id,
+                    displayName(session.day), start, end, startDate, null);
+            }
+        }
+    }
+
+    private void generateStudents(BulkLoader userLoader, BulkLoader enrollmentLoader, LocalDate startDate) throws SQLException {
+        SplittableRandom random = random("students");
+        int departments = Math.min(options.departments, DEPARTMENTS.length);
+        // All students share one hash; hashing per row would dominate the load time
+        String passwordHash = BCrypt.hashpw(options.password, BCrypt.gensalt());
+
+        // Zipf-like department sizes: the first departments are much larger than the last
+        double[] departmentWeights = new double[departments];
+        for (int d = 0; d < departments; d++) {
+            departmentWeights[d] = 1.0 / Math.pow(d + 1, 0.8);
+        }
+
+        Map<String, List<Course>> courseGroups = new HashMap<>();
+        for (Course course : courses) {
+            courseGroups.computeIfAbsent(course.department + ":" + course.year + ":" + course.partTime,
+                key -> new ArrayList<>()).add(course);
+        }
+
+        for (int i = 1; i <= options.students; i++) {
+            int department = pick(random, departmentWeights);
+            double u = random.nextDouble();
+            int year = u < 0.40 ? 0 : u < 0.73 ? 1 : 2;
+            boolean partTime = random.nextDouble() < 0.2;
+
+            // Most students attend reliably; a long tail rarely shows up
+            double turnout = 0.98 - 0.75 * Math.pow(random.nextDouble(), 3);
+            Student student = new Student(uuid("student", i), turnout);
+
+            String name = name(random);
+            userLoader.add(student.id, String.format("GEN%06d", i), name, String.format("gen%06d@students.example.edu", i),
+                passwordHash, "student", DEPARTMENTS[department], YEARS[year], partTime ? "Part Time" : "Full Time",
+                LocalDate.of(2006 - year - random.nextInt(4), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+
+            for (Course course : courseGroups.getOrDefault(department + ":" + year + ":" + partTime, List.of())) {
+                boolean dropped = random.nextDouble() < 0.05;
+                LocalDate enrolled = startDate.minusDays(random.nextInt(30));
+                enrollmentLoader.add(uuid("enrollment", student.id + course.id), student.id, course.id, enrolled,
+                    dropped ? "dropped" : "active");
+                if (!dropped) {
+                    course.students.add(student);
+                }
+            }
+        }
+    }
+
+    private void generateAttendance(BulkLoader loader, Connection conn, LocalDate startDate) throws SQLException {
+        SplittableRandom random = random("attendance");
+        long committedAt = 0;
+
+        for (LocalDate day = startDate; !day.isAfter(options.end); day = day.plusDays(1)) {
+            List<Session> today = sessionsByDay.get(day.getDayOfWeek());
+            if (today == null || isBreak(day)) {
+                continue;
+            }
+
+            // Fridays and the first week back are noticeably emptier
+            double dayFactor = day.getDayOfWeek() == DayOfWeek.FRIDAY ? 0.85 : 1.0;
+            if (isFirstWeekBack(day)) {
+                dayFactor *= 0.8;
+            }
+
+            for (Session session : today) {
+                LocalDateTime opens = day.atTime(session.start).minusMinutes(10);
+                for (Student student : session.course.students) {
+                    if (random.nextDouble() >= student.turnout * dayFactor) {
+                        continue;
+                    }
+
+                    // Scans bunch up around the start of the session with a late tail
+                    long offsetSeconds = random.nextDouble() < 0.9
+                        ? (long) (-Math.log(1 - random.nextDouble()) * 300)
+                        : 600 + random.nextInt(1800);
+                    LocalDateTime scanned = opens.plusSeconds(offsetSeconds);
+                    loader.add(student.id, session.room.deviceId, DATETIME.format(scanned));
+
+                    // Repeat scans when the device did not acknowledge quickly enough
+                    if (random.nextDouble() < 0.04) {
+                        loader.add(student.id, session.room.deviceId, DATETIME.format(scanned.plusSeconds(5 + random.nextInt(85))));
+                    }
+                }
+            }
+
+            // Commit roughly every million rows to keep the undo log small
+            if (loader.getRows() - committedAt > 1_000_000) {
+                conn.commit();
+                committedAt = loader.getRows();
+                logger.info("Generated scans through {} ({} rows)", day, committedAt);
+            }
+        }
+    }
+
+    private void analyze(Connection conn) throws SQLException {
+        conn.setAutoCommit(true);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET SESSION unique_checks = 1");
+            stmt.execute("SET SESSION foreign_key_checks = 1");
+
+            // Fresh statistics so the planner sees the new volumes
+            try (ResultSet rs = stmt.executeQuery("ANALYZE TABLE attendance, users, enrollments, schedules, courses")) {
+                while (rs.next()) {
+                    // drain
+                }
+            }
+
+            for (String table : GENERATED_TABLES) {
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                    rs.next();
+                    logger.info("{}: {} rows", table, rs.getLong(1));
+                }
+            }
+        }
+    }
+
+    // Semester breaks: mid-December to early January, and July through August
+    private static boolean isBreak(LocalDate day) {
+        Month month = day.getMonth();
+        return month == Month.JULY || month == Month.AUGUST
+            || (month == Month.DECEMBER && day.getDayOfMonth() >= 20)
+            || (month == Month.JANUARY && day.getDayOfMonth() < 10);
+    }
+
+    private static boolean isFirstWeekBack(LocalDate day) {
+        return (day.getMonth() == Month.JANUARY && day.getDayOfMonth() < 17)
+            || (day.getMonth() == Month.SEPTEMBER && day.getDayOfMonth() < 8);
+    }
+
+    private static String displayName(DayOfWeek day) {
+        String name = day.name();
+        return name.charAt(0) + name.substring(1).toLowerCase();
+    }
+
+    private static int pick(SplittableRandom random, double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double target = random.nextDouble() * total;
+        for (int i = 0; i < weights.length - 1; i++) {
+            target -= weights[i];
+            if (target < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static String name(SplittableRandom random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    // Each stage has its own stream so changing one volume leaves the others' draws alone
+    private SplittableRandom random(String stage) {
+        return new SplittableRandom(seed * 31 + stage.hashCode());
+    }
+
+    private String uuid(String kind, Object key) {
+        return UUID.nameUUIDFromBytes((seed + ":" + kind + ":" + key).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private static Properties loadProperties() throws IOException {
+        Properties properties = new Properties();
+
+        try (InputStream input = DatasetGenerator.class.getClassLoader().getResourceAsStream("application.properties")) {
+            if (input == null) {
+                throw new IOException("application.properties file not found");
+            }
+            properties.load(input);
+        }
+
+        return properties;
+    }
+
+    static class Options {
+        int students = 5000;
+        int days = 365;
+        LocalDate end = LocalDate.now().minusDays(1);
+        int departments = 6;
+        int coursesPerYear = 4;
+        long seed = 42;
+        int batchSize = 10000;
+        String method = "auto";
+        String password = "student123";
+        boolean reset;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                String key = arg.contains("=") ? arg.substring(0, arg.indexOf('=')) : arg;
+                String value = arg.contains("=") ? arg.substring(arg.indexOf('=') + 1) : "";
+                switch (key) {
+                    case "--students": options.students = Integer.parseInt(value); break;
+                    case "--days": options.days = Integer.parseInt(value); break;
+                    case "--end": options.end = LocalDate.parse(value); break;
+                    case "--departments": options.departments = Integer.parseInt(value); break;
+                    case "--coursesPerYear": options.coursesPerYear = Integer.parseInt(value); break;
+                    case "--seed": options.seed = Long.parseLong(value); break;
+                    case "--batchSize": options.batchSize = Integer.parseInt(value); break;
+                    case "--method": options.method = value; break;
+                    case "--password": options.password = value; break;
+                    case "--reset": options.reset = true; break;
+                    default: throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            if (!options.method.matches("auto|load|insert")) {
+                throw new IllegalArgumentException("--method must be auto, load or insert");
+            }
+            if (options.students < 1 || options.days < 1 || options.departments < 1 || options.coursesPerYear < 1) {
+                throw new IllegalArgumentException("--students, --days, --departments and --coursesPerYear must be positive");
+            }
+            return options;
+        }
+    }
+
+    private static class Course {
+        final String id;
+        final int department;
+        final int year;
+        final boolean partTime;
+        final String lecturerId;
+        final List<Student> students = new ArrayList<>();
+
+        Course(String id, int department, int year, boolean partTime, String lecturerId) {
+            this.id = id;
+            this.department = department;
+            this.year = year;
+            this.partTime = partTime;
+            this.lecturerId = lecturerId;
+        }
+    }
+
+    private static class Room {
+        final String id;
+        final String deviceId;
+
+        Room(String id, String deviceId) {
+            this.id = id;
+            this.deviceId = deviceId;
+        }
+    }
+
+    private static class Session {
+        final Course course;
+        final Room room;
+        final DayOfWeek day;
+        final LocalTime start;
+
+        Session(Course course, Room room, DayOfWeek day, LocalTime start) {
+            this.course = course;
+            this.room = room;
+            this.day = day;
+            this.start = start;
+        }
+    }
+
+    private static class Student {
+        final String id;
+        final double turnout;
+
+        Student(String id, double turnout) {
+            this.id = id;
+            this.turnout = turnout;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.mlvisiotrack.tools;
+
+import com.mlvisiotrack.config.DatabaseConfig;
+import com.mlvisiotrack.dao.AttendanceDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Properties;
+
+/**
+ * Rebuilds attendance_daily_rollup from raw scans.
+ *
+ * Usage: RollupBackfill [startDate] [endDate]
+ * Dates are ISO (yyyy-MM-dd) and inclusive; omitted bounds cover all history.
+ */
+public class RollupBackfill {
+    private static final Logger logger = LoggerFactory.getLogger(RollupBackfill.class);
+    
+    public static void main(String[] args) throws Exception {
+        LocalDate startDate = args.length > 0 ? LocalDate.parse(args[0]) : null;
+        LocalDate endDate = args.length > 1 ? LocalDate.parse(args[1]) : null;
+        
+        DatabaseConfig.initialize(loadProperties());
+        
+        try {
+            int rows = new AttendanceDAO().rebuildDailyRollup(startDate, endDate);
+            logger.info("Rollup backfill complete: {} rows", rows);
+        } finally {
+            DatabaseConfig.shutdown();
+        }
+    }
+    
+    private static Properties loadProperties() throws IOException {
+        Properties properties = new Properties();
+        
+        try (InputStream input = RollupBackfill.class.getClassLoader().getResourceAsStream("application.properties")) {
+            if (input == null) {
+                throw new IOException("application.properties file not found");
+            }
+            properties.load(input);
+        }
+        
+        return properties;
+    }
+}
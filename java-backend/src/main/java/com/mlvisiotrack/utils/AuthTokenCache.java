@@ -0,0 +1,149 @@
+package com.mlvisiotrack.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, TTL-based cache of verified JWTs keyed by token digest. Each entry
+ * holds the decoded claims and whether the user was active when checked, so a
+ * repeat request skips signature verification and the users lookup. Entries of
+ * a user are dropped whenever UserDAO changes that user.
+ */
+public final class AuthTokenCache {
+    private static final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Bumped on invalidation so a lookup that raced with a user change is not cached
+    private static final ConcurrentMap<String, Long> userGenerations = new ConcurrentHashMap<>();
+
+    private static volatile int maxEntries = 10000;
+    private static volatile long ttlNanos = TimeUnit.SECONDS.toNanos(60);
+
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final LongAdder evictions = new LongAdder();
+
+    private AuthTokenCache() {}
+
+    public static void configure(Properties properties) {
+        maxEntries = Integer.parseInt(properties.getProperty("auth.tokenCache.maxEntries", "10000"));
+        ttlNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(properties.getProperty("auth.tokenCache.ttlSeconds", "60")));
+    }
+
+    public static boolean isEnabled() {
+        return maxEntries > 0 && ttlNanos > 0;
+    }
+
+    public static Entry get(String token) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        String key = digest(token);
+        Entry entry = entries.get(key);
+
+        if (entry != null && System.nanoTime() - entry.expiresAtNanos < 0) {
+            hits.increment();
+            return entry;
+        }
+
+        if (entry != null) {
+            entries.remove(key, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    // Read before looking the user up; pass to put so a concurrent invalidation wins
+    public static long generationOf(String userId) {
+        return userGenerations.getOrDefault(userId, 0L);
+    }
+
+    public static Entry put(String token, String userId, String role, String email, boolean active,
+                            Date tokenExpiresAt, long generation) {
+        long now = System.nanoTime();
+        long lifetime = ttlNanos;
+        if (tokenExpiresAt != null) {
+            lifetime = Math.min(lifetime, TimeUnit.MILLISECONDS.toNanos(tokenExpiresAt.getTime() - System.currentTimeMillis()));
+        }
+
+        Entry entry = new Entry(userId, role, email, active, now + lifetime);
+        if (!isEnabled() || lifetime <= 0) {
+            return entry;
+        }
+
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+
+        String key = digest(token);
+        entries.put(key, entry);
+
+        if (generationOf(userId) != generation) {
+            entries.remove(key, entry);
+        }
+
+        return entry;
+    }
+
+    public static void invalidateUser(String userId) {
+        userGenerations.merge(userId, 1L, Long::sum);
+        entries.values().removeIf(entry -> entry.userId.equals(userId));
+    }
+
+    public static long getHits() { return hits.sum(); }
+    public static long getMisses() { return misses.sum(); }
+    public static long getEvictions() { return evictions.sum(); }
+    public static int getSize() { return entries.size(); }
+
+    // Drops expired entries, then arbitrary ones until there is 10% headroom
+    private static void evict(long now) {
+        entries.values().removeIf(entry -> now - entry.expiresAtNanos >= 0);
+
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static class Entry {
+        private final String userId;
+        private final String role;
+        private final String email;
+        private final boolean active;
+        private final long expiresAtNanos;
+
+        Entry(String userId, String role, String email, boolean active, long expiresAtNanos) {
+            this.userId = userId;
+            this.role = role;
+            this.email = email;
+            this.active = active;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        public String getUserId() { return userId; }
+        public String getRole() { return role; }
+        public String getEmail() { return email; }
+        public boolean isActive() { return active; }
+    }
+}
@@ -0,0 +1,132 @@
+package com.mlvisiotrack.utils;
+
+import com.mlvisiotrack.config.DatabaseConfig;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory change counters for the users and attendance tables, with an extra
+ * counter per attendance date. The DAOs bump them after each committed write;
+ * listing endpoints turn them into weak ETags so an unchanged poll is answered
+ * with 304 before any SQL runs. The boot id makes tags from a previous process
+ * (or one that missed writes made by offline tools) never match. When listings
+ * are served from read replicas, no tag is issued until db.read.maxLagMs after
+ * the last write, so a lagging replica's result is never pinned by a 304.
+ */
+public final class DataVersion {
+    private static final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    // Wider ranges fall back to the table-wide counter instead of summing days
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private static final AtomicLong users = new AtomicLong();
+    private static final AtomicLong attendance = new AtomicLong();
+    private static final ConcurrentMap<LocalDate, AtomicLong> attendanceByDate = new ConcurrentHashMap<>();
+
+    private static volatile long settleNanos;
+    private static volatile long lastUsersChange = System.nanoTime();
+    private static volatile long lastAttendanceChange = System.nanoTime();
+
+    private DataVersion() {}
+
+    // Call after DatabaseConfig.initialize so the replica setup is known
+    public static void configure(Properties properties) {
+        settleNanos = DatabaseConfig.getReplicaCount() > 0
+            ? TimeUnit.MILLISECONDS.toNanos(Long.parseLong(properties.getProperty("db.read.maxLagMs", "1000")))
+            : 0;
+    }
+
+    public static void usersChanged() {
+        users.incrementAndGet();
+        lastUsersChange = System.nanoTime();
+    }
+
+    public static void attendanceChanged(Collection<LocalDate> days) {
+        for (LocalDate day : days) {
+            attendanceByDate.computeIfAbsent(day, d -> new AtomicLong()).incrementAndGet();
+        }
+        attendance.incrementAndGet();
+        lastAttendanceChange = System.nanoTime();
+    }
+
+    // Null while a recent change may not have reached the replicas yet
+    public static String usersTag() {
+        if (!settled(lastUsersChange)) {
+            return null;
+        }
+        return "W/\"" + bootId + "-u" + users.get() + "\"";
+    }
+
+    // Attendance rows embed user details, so user changes invalidate these tags too
+    public static String attendanceTag(LocalDate startDate, LocalDate endDate) {
+        if (!settled(lastAttendanceChange) || !settled(lastUsersChange)) {
+            return null;
+        }
+
+        String version;
+
+        if (startDate != null && endDate != null && !endDate.isBefore(startDate)
+                && ChronoUnit.DAYS.between(startDate, endDate) < MAX_RANGE_DAYS) {
+            // Counters only grow, so the sum changes whenever any day in the range does
+            long sum = 0;
+            for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+                AtomicLong counter = attendanceByDate.get(day);
+                if (counter != null) {
+                    sum += counter.get();
+                }
+            }
+            version = "d" + sum;
+        } else {
+            version = "a" + attendance.get();
+        }
+
+        return "W/\"" + bootId + "-" + version + "-u" + users.get() + "\"";
+    }
+
+    /**
+     * Sets the ETag header and, when the request's If-None-Match already holds
+     * it, answers 304. Callers must compute the tag before querying so that a
+     * write landing mid-request leads to a refetch rather than a stale match.
+     * A null tag always means the full response is sent.
+     */
+    public static boolean notModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+        if (etag == null) {
+            return false;
+        }
+        
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", "no-cache");
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            // Weak comparison: ignore the W/ prefix on either side
+            if (tag.equals("*") || stripWeak(tag).equals(stripWeak(etag))) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean settled(long lastChange) {
+        return settleNanos == 0 || System.nanoTime() - lastChange >= settleNanos;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -1,54 +1,249 @@
 package com.mlvisiotrack.utils;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.mlvisiotrack.filters.RequestMetricsFilter;
+import com.mlvisiotrack.models.AttendanceRecord;
+import com.mlvisiotrack.models.Projection;
+import com.mlvisiotrack.models.User;
 import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+import java.util.Properties;
 
+/**
+ * Writes the standard {success, data, message} envelope. All JSON goes through
+ * one shared mapper; the envelope itself is emitted field by field on a
+ * generator over the response stream, and the hot model types use writers
+ * whose serializers are resolved once up front.
+ */
 public class JsonResponse {
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static volatile Serializers serializers = new Serializers(false);
     
-    static {
-        objectMapper.registerModule(new JavaTimeModule());
+    public static void configure(Properties properties) {
+        serializers = new Serializers(Boolean.parseBoolean(properties.getProperty("json.blackbird.enabled", "false")));
+    }
+    
+    // Shared mapper for reading request bodies; thread-safe once configured
+    public static ObjectMapper getMapper() {
+        return serializers.mapper;
+    }
+    
+    // Produces the rows of a streamed "data" array
+    @FunctionalInterface
+    public interface RowSource {
+        void writeRows(RowSink sink) throws Exception;
+    }
+    
+    @FunctionalInterface
+    public interface RowSink {
+        void write(Object row) throws IOException;
     }
     
     public static void sendSuccess(HttpServletResponse response, Object data) throws IOException {
         sendSuccess(response, data, null, 200);
     }
     
+    // Users and attendance records in data carry only the projection's fields
+    public static void sendSuccess(HttpServletResponse response, Object data, Projection projection) throws IOException {
+        Writers writers = serializers.writers(projection);
+        sendEnvelope(response, 200, true, generator -> {
+            generator.writeFieldName("data");
+            writeData(generator, data, writers);
+        });
+    }
+    
     public static void sendSuccess(HttpServletResponse response, Object data, String message) throws IOException {
         sendSuccess(response, data, message, 200);
     }
     
     public static void sendSuccess(HttpServletResponse response, Object data, String message, int statusCode) throws IOException {
-        Map<String, Object> responseMap = new HashMap<>();
-        responseMap.put("success", true);
-        responseMap.put("data", data);
+        Writers writers = serializers.full;
+        sendEnvelope(response, statusCode, true, generator -> {
+            generator.writeFieldName("data");
+            writeData(generator, data, writers);
+            if (message != null) {
+                generator.writeStringField("message", message);
+            }
+        });
+    }
+    
+    // Success envelope for one page of a keyset-paginated listing; next is null on the last page
+    public static void sendPage(HttpServletResponse response, Object data, String next) throws IOException {
+        sendPage(response, data, next, Projection.FULL);
+    }
+    
+    public static void sendPage(HttpServletResponse response, Object data, String next, 
+                                Projection projection) throws IOException {
+        Writers writers = serializers.writers(projection);
+        sendEnvelope(response, 200, true, generator -> {
+            generator.writeFieldName("data");
+            writeData(generator, data, writers);
+            generator.writeStringField("next", next);
+        });
+    }
+    
+    /**
+     * Writes the {success, data: [...]} envelope straight to the output stream,
+     * serializing each row as the source produces it. The response is flushed
+     * after the first row so clients start receiving data while the query runs.
+     * If the source fails before anything was sent the response is reset so the
+     * caller can still report an error. Row writes interleave with the query, so
+     * unlike the buffered envelopes this is not counted as serialization time.
+     */
+    public static void streamSuccess(HttpServletResponse response, RowSource source) throws Exception {
+        streamSuccess(response, Projection.FULL, source);
+    }
+    
+    public static void streamSuccess(HttpServletResponse response, Projection projection, 
+                                     RowSource source) throws Exception {
+        Writers writers = serializers.writers(projection);
+        JsonGenerator generator = startEnvelope(response, 200, true);
         
-        if (message != null) {
-            responseMap.put("message", message);
+        try {
+            generator.writeArrayFieldStart("data");
+            
+            int[] written = {0};
+            source.writeRows(row -> {
+                writeData(generator, row, writers);
+                if (++written[0] == 1) {
+                    generator.flush();
+                    response.flushBuffer();
+                }
+            });
+            
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.close();
+        } catch (Exception e) {
+            // Never auto-close a half-written envelope into something that looks complete
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            if (!response.isCommitted()) {
+                response.reset();
+            }
+            throw e;
         }
+    }
+    
+    /**
+     * Throws IllegalStateException once the response is committed, like
+     * HttpServletResponse.sendError: a second envelope appended to a streamed
+     * body would make a truncated response look complete.
+     */
+    public static void sendError(HttpServletResponse response, int statusCode, String message) throws IOException {
+        if (response.isCommitted()) {
+            throw new IllegalStateException("Cannot send error " + statusCode + ": response already committed");
+        }
+        sendEnvelope(response, statusCode, false, generator -> {
+            generator.writeStringField("message", message);
+            generator.writeNullField("data");
+        });
+    }
+    
+    @FunctionalInterface
+    private interface EnvelopeFields {
+        void write(JsonGenerator generator) throws IOException;
+    }
+    
+    private static void sendEnvelope(HttpServletResponse response, int statusCode, boolean success, 
+                                     EnvelopeFields fields) throws IOException {
+        long started = System.nanoTime();
+        JsonGenerator generator = startEnvelope(response, statusCode, success);
         
+        try {
+            fields.write(generator);
+            generator.writeEndObject();
+            generator.close();
+        } catch (IOException | RuntimeException e) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.close();
+            throw e;
+        } finally {
+            RequestMetricsFilter.addSerializationTime(response, System.nanoTime() - started);
+        }
+    }
+    
+    private static JsonGenerator startEnvelope(HttpServletResponse response, int statusCode, boolean success) throws IOException {
         response.setContentType("application/json");
         response.setCharacterEncoding("UTF-8");
         response.setStatus(statusCode);
         
-        objectMapper.writeValue(response.getWriter(), responseMap);
+        JsonGenerator generator = serializers.mapper.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+        generator.writeStartObject();
+        generator.writeBooleanField("success", success);
+        return generator;
     }
     
-    public static void sendError(HttpServletResponse response, int statusCode, String message) throws IOException {
-        Map<String, Object> responseMap = new HashMap<>();
-        responseMap.put("success", false);
-        responseMap.put("message", message);
-        responseMap.put("data", null);
+    private static void writeData(JsonGenerator generator, Object data, Writers writers) throws IOException {
+        if (data instanceof AttendanceRecord) {
+            writers.recordWriter.writeValue(generator, data);
+        } else if (data instanceof User) {
+            writers.userWriter.writeValue(generator, data);
+        } else if (data instanceof List) {
+            generator.writeStartArray();
+            for (Object element : (List<?>) data) {
+                writeData(generator, element, writers);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.writeObject(data);
+        }
+    }
+    
+    private static class Writers {
+        private final ObjectWriter recordWriter;
+        private final ObjectWriter userWriter;
         
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        response.setStatus(statusCode);
+        Writers(ObjectWriter recordWriter, ObjectWriter userWriter) {
+            this.recordWriter = recordWriter;
+            this.userWriter = userWriter;
+        }
+    }
+    
+    // Attached to the model types on the projection mapper only, so full output pays no filter lookup
+    @JsonFilter("fields")
+    private abstract static class FieldsFilter {}
+    
+    // Mappers plus the writers derived from them, swapped together by configure()
+    private static class Serializers {
+        private final ObjectMapper mapper;
+        private final ObjectMapper projectionMapper;
+        private final Writers full;
         
-        objectMapper.writeValue(response.getWriter(), responseMap);
+        Serializers(boolean blackbird) {
+            mapper = new ObjectMapper();
+            mapper.registerModule(new JavaTimeModule());
+            if (blackbird) {
+                // Replaces reflective getter calls with generated lambdas
+                mapper.registerModule(new BlackbirdModule());
+            }
+            // The envelope closes (and so flushes) the generator once at the end
+            mapper.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            
+            full = new Writers(mapper.writerFor(AttendanceRecord.class), mapper.writerFor(User.class));
+            
+            projectionMapper = mapper.copy();
+            projectionMapper.addMixIn(AttendanceRecord.class, FieldsFilter.class);
+            projectionMapper.addMixIn(User.class, FieldsFilter.class);
+        }
+        
+        Writers writers(Projection projection) {
+            if (projection.isFull()) {
+                return full;
+            }
+            SimpleFilterProvider filters = new SimpleFilterProvider()
+                .addFilter("fields", SimpleBeanPropertyFilter.filterOutAllExcept(projection.getFields()));
+            return new Writers(projectionMapper.writerFor(AttendanceRecord.class).with(filters),
+                               projectionMapper.writerFor(User.class).with(filters));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,157 @@
+package com.mlvisiotrack.dao;
+
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs EXPLAIN on every date-filtered variant of the SqlCatalog read shapes
+ * and checks that MySQL answers it with a range scan on the expected index.
+ * Needs a MySQL schema loaded with DatasetGenerator, since the optimizer
+ * prefers full scans on near-empty tables. Skipped unless test.db.url is set:
+ *
+ *   mvn test -Dtest.db.url=jdbc:mysql://localhost:3306/mlvisiotrack -Dtest.db.user=root -Dtest.db.password=
+ *
+ * Department filters are left out: with them the plan depends on the join
+ * order the optimizer picks for that department's size.
+ */
+public class SqlCatalogExplainTest {
+    private static final int RANGE_BITS = SqlCatalog.FROM | SqlCatalog.TO | SqlCatalog.AFTER;
+
+    private static Connection connection;
+    private static LocalDateTime firstScan;
+    private static LocalDateTime lastScan;
+    private static String studentId;
+
+    @BeforeClass
+    public static void connect() throws SQLException {
+        String url = System.getProperty("test.db.url", "");
+        Assume.assumeTrue("test.db.url not set; skipping EXPLAIN checks", !url.isEmpty());
+
+        connection = DriverManager.getConnection(url,
+            System.getProperty("test.db.user", "root"), System.getProperty("test.db.password", ""));
+
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT MIN(timestamp), MAX(timestamp), MAX(student_id) FROM attendance")) {
+            rs.next();
+            Assume.assumeTrue("attendance is empty; load it with DatasetGenerator", rs.getTimestamp(1) != null);
+            firstScan = rs.getTimestamp(1).toLocalDateTime();
+            lastScan = rs.getTimestamp(2).toLocalDateTime();
+            studentId = rs.getString(3);
+        }
+    }
+
+    @AfterClass
+    public static void close() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void studentPagesUseStudentTimestampIndex() throws SQLException {
+        assertRangeScans(SqlCatalog.ATTENDANCE_PAGE_BY_STUDENT, true, true, "a", "idx_student_timestamp");
+        assertRangeScans(SqlCatalog.ATTENDANCE_PAGE_BY_STUDENT_SUMMARY, true, true, "a", "idx_student_timestamp");
+    }
+
+    @Test
+    public void pagesUseTimestampIndex() throws SQLException {
+        assertRangeScans(SqlCatalog.ATTENDANCE_PAGE, false, true, "a", "idx_timestamp");
+        assertRangeScans(SqlCatalog.ATTENDANCE_PAGE_SUMMARY, false, true, "a", "idx_timestamp");
+    }
+
+    @Test
+    public void streamsUseTimestampIndex() throws SQLException {
+        assertRangeScans(SqlCatalog.ATTENDANCE_STREAM, false, false, "a", "idx_timestamp");
+        assertRangeScans(SqlCatalog.ATTENDANCE_STREAM_SUMMARY, false, false, "a", "idx_timestamp");
+    }
+
+    @Test
+    public void dailyReportUsesScanDateIndex() throws SQLException {
+        for (int mask : new int[] {SqlCatalog.FROM, SqlCatalog.TO, SqlCatalog.FROM | SqlCatalog.TO}) {
+            List<Object> parameters = new ArrayList<>();
+            LocalDateTime from = lastScan.minusDays(7);
+            if ((mask & SqlCatalog.FROM) != 0) {
+                parameters.add(Date.valueOf(from.toLocalDate()));
+            }
+            if ((mask & SqlCatalog.TO) != 0) {
+                parameters.add(Date.valueOf((mask & SqlCatalog.FROM) != 0
+                    ? from.toLocalDate().plusDays(1) : firstScan.toLocalDate().plusDays(1)));
+            }
+            assertRangeScan(SqlCatalog.DAILY_ATTENDANCE.sql(mask), parameters, "r", "idx_scan_date");
+        }
+    }
+
+    // Every combination of the timestamp filters, bound to narrow windows at either end of the data
+    private void assertRangeScans(SqlCatalog.Shape shape, boolean byStudent, boolean limited,
+                                  String table, String key) throws SQLException {
+        for (int mask = 1; mask <= RANGE_BITS; mask++) {
+            if ((mask & ~RANGE_BITS) != 0) {
+                continue;
+            }
+
+            // With a lower bound the window is the last week, otherwise the first day
+            boolean hasFrom = (mask & SqlCatalog.FROM) != 0;
+            LocalDateTime from = lastScan.minusDays(7);
+            LocalDateTime to = hasFrom ? from.plusDays(1) : firstScan.plusDays(1);
+            LocalDateTime after = hasFrom ? from.plusHours(12) : firstScan.plusHours(12);
+
+            List<Object> parameters = new ArrayList<>();
+            if (byStudent) {
+                parameters.add(studentId);
+            }
+            if (hasFrom) {
+                parameters.add(Timestamp.valueOf(from));
+            }
+            if ((mask & SqlCatalog.TO) != 0) {
+                parameters.add(Timestamp.valueOf(to));
+            }
+            if ((mask & SqlCatalog.AFTER) != 0) {
+                parameters.add(Timestamp.valueOf(after));
+                parameters.add(Timestamp.valueOf(after));
+                parameters.add(Integer.MAX_VALUE);
+            }
+            if (limited) {
+                parameters.add(50);
+            }
+
+            assertRangeScan(shape.sql(mask), parameters, table, key);
+        }
+    }
+
+    private void assertRangeScan(String sql, List<Object> parameters, String table, String key) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                stmt.setObject(i + 1, parameters.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (table.equals(rs.getString("table"))) {
+                        assertEquals("access type for " + sql, "range", rs.getString("type"));
+                        assertEquals("index for " + sql, key, rs.getString("key"));
+                        return;
+                    }
+                }
+            }
+        }
+        fail("No plan row for table " + table + " in " + sql);
+    }
+}
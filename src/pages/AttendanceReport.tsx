@@ -30,34 +30,46 @@ const AttendanceReport: React.FC = () => {
   const [selectedRecord, setSelectedRecord] = useState<AttendanceRecord | null>(null);
   const [attendanceRecords, setAttendanceRecords] = useState<AttendanceRecord[]>([]);
   const [isLoading, setIsLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
   const { user } = useAuth();
 
   useEffect(() => {
     fetchAttendanceData();
   }, [selectedDateRange]);
 
+  const getDateRange = () => {
+    let startDate, endDate;
+    const now = new Date();
+    
+    if (selectedDateRange === 'current') {
+      startDate = format(new Date(now.getFullYear(), now.getMonth(), 1), 'yyyy-MM-dd');
+      endDate = format(now, 'yyyy-MM-dd');
+    } else if (selectedDateRange === 'previous') {
+      const prevMonth = new Date(now.getFullYear(), now.getMonth() - 1, 1);
+      startDate = format(prevMonth, 'yyyy-MM-dd');
+      endDate = format(new Date(now.getFullYear(), now.getMonth(), 0), 'yyyy-MM-dd');
+    }
+    
+    return { startDate, endDate };
+  };
+
+  const fetchPage = (cursor?: string | null) => {
+    const { startDate, endDate } = getDateRange();
+    return user?.role === 'admin' 
+      ? apiService.getAttendanceRecords(startDate, endDate, undefined, cursor)
+      : apiService.getStudentAttendance(user?.id || '', startDate, endDate, cursor);
+  };
+
   const fetchAttendanceData = async () => {
     try {
       setIsLoading(true);
       
-      let startDate, endDate;
-      const now = new Date();
-      
-      if (selectedDateRange === 'current') {
-        startDate = format(new Date(now.getFullYear(), now.getMonth(), 1), 'yyyy-MM-dd');
-        endDate = format(now, 'yyyy-MM-dd');
-      } else if (selectedDateRange === 'previous') {
-        const prevMonth = new Date(now.getFullYear(), now.getMonth() - 1, 1);
-        startDate = format(prevMonth, 'yyyy-MM-dd');
-        endDate = format(new Date(now.getFullYear(), now.getMonth(), 0), 'yyyy-MM-dd');
-      }
-      
-      const response = user?.role === 'admin' 
-        ? await apiService.getAttendanceRecords(startDate, endDate)
-        : await apiService.getStudentAttendance(user?.id || '', startDate, endDate);
+      const response = await fetchPage();
       
       if (response.success && response.data) {
-        setAttendanceRecords(response.data);
+        setAttendanceRecords(response.data.records);
+        setNextCursor(response.data.next);
       }
     } catch (error) {
       console.error('Error fetching attendance data:', error);
@@ -67,6 +79,24 @@ const AttendanceReport: React.FC = () => {
     }
   };
 
+  const handleLoadMore = async () => {
+    try {
+      setIsLoadingMore(true);
+      
+      const response = await fetchPage(nextCursor);
+      
+      if (response.success && response.data) {
+        const page = response.data;
+        setAttendanceRecords(records => [...records, ...page.records]);
+        setNextCursor(page.next);
+      } else {
+        toast.error('Failed to load more attendance records');
+      }
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+
   const handleExportPDF = async () => {
     try {
       setIsExporting(true);
@@ -91,10 +121,29 @@ const AttendanceReport: React.FC = () => {
     }
   };
 
-  const handleExportCSV = () => {
+  const handleExportCSV = async () => {
     try {
       setIsExporting(true);
-      const csvData = filteredRecords.map(record => ({
+      const { startDate, endDate } = getDateRange();
+      
+      // Admins get the server-side export; a student's own history is small enough to fetch in full
+      if (user?.role === 'admin') {
+        const response = await apiService.exportAttendanceCsv(startDate, endDate);
+        if (!response.success || !response.data) {
+          toast.error('Failed to generate CSV');
+          return;
+        }
+        downloadBlob(response.data, `attendance-report-${format(new Date(), 'yyyy-MM-dd')}.csv`);
+        return;
+      }
+      
+      const response = await apiService.getAllStudentAttendance(user?.id || '', startDate, endDate);
+      if (!response.success || !response.data) {
+        toast.error('Failed to generate CSV');
+        return;
+      }
+      
+      const csvData = (response.data as AttendanceRecord[]).filter(matchesStatus).map(record => ({
         'Student ID': record.studentId,
         'Student Name': record.studentName || 'N/A',
         'Registration Number': record.registrationNumber || 'N/A',
@@ -106,15 +155,7 @@ const AttendanceReport: React.FC = () => {
 
       const csv = Papa.unparse(csvData);
       const blob = new Blob([csv], { type: 'text/csv;charset=utf-8;' });
-      const link = document.createElement('a');
-      const url = URL.createObjectURL(blob);
-      
-      link.setAttribute('href', url);
-      link.setAttribute('download', `attendance-report-${format(new Date(), 'yyyy-MM-dd')}.csv`);
-      link.style.visibility = 'hidden';
-      document.body.appendChild(link);
-      link.click();
-      document.body.removeChild(link);
+      downloadBlob(blob, `attendance-report-${format(new Date(), 'yyyy-MM-dd')}.csv`);
     } catch (error) {
       console.error('Error generating CSV:', error);
       toast.error('Failed to generate CSV');
@@ -123,15 +164,30 @@ const AttendanceReport: React.FC = () => {
     }
   };
 
+  const downloadBlob = (blob: Blob, filename: string) => {
+    const link = document.createElement('a');
+    const url = URL.createObjectURL(blob);
+    
+    link.setAttribute('href', url);
+    link.setAttribute('download', filename);
+    link.style.visibility = 'hidden';
+    document.body.appendChild(link);
+    link.click();
+    document.body.removeChild(link);
+    URL.revokeObjectURL(url);
+  };
+
   const handleReviewRequest = (record: AttendanceRecord) => {
     setSelectedRecord(record);
     setIsReviewModalOpen(true);
   };
 
-  const filteredRecords = attendanceRecords.filter(record => {
+  const matchesStatus = (record: AttendanceRecord) => {
     if (selectedStatus === 'all') return true;
     return (record.status || 'Present').toLowerCase() === selectedStatus.toLowerCase();
-  });
+  };
+
+  const filteredRecords = attendanceRecords.filter(matchesStatus);
 
   if (isLoading) {
     return (
@@ -264,6 +320,18 @@ const AttendanceReport: React.FC = () => {
               No attendance records found for the selected criteria.
             </div>
           )}
+          
+          {nextCursor && (
+            <div className="flex justify-center py-4">
+              <button
+                onClick={handleLoadMore}
+                disabled={isLoadingMore}
+                className="px-4 py-2 border border-[#7494ec] text-[#7494ec] rounded-lg hover:bg-gray-50 text-sm disabled:opacity-50"
+              >
+                {isLoadingMore ? 'Loading...' : 'Load more'}
+              </button>
+            </div>
+          )}
         </div>
       </div>
 
@@ -47,7 +47,7 @@ const Dashboard: React.FC = () => {
         const [statsResponse, activityResponse, attendanceResponse] = await Promise.all([
           apiService.getDashboardStats(),
           apiService.getRecentActivity(),
-          apiService.getAttendanceRecords(),
+          apiService.getAttendanceTimestamps(),
         ]);
 
         if (statsResponse.success && statsResponse.data) {
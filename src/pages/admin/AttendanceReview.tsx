@@ -1,6 +1,5 @@
 import React, { useState, useEffect } from 'react';
 import { Clock, Search, Download, AlertTriangle } from 'lucide-react';
-import { unparse } from 'papaparse';
 import { format } from 'date-fns';
 import BackButton from '../../components/BackButton';
 import ManualAttendanceModal from '../../components/ManualAttendanceModal';
@@ -41,6 +40,8 @@ const AttendanceReview = () => {
   const [isManualModalOpen, setIsManualModalOpen] = useState(false);
   const [attendanceRecords, setAttendanceRecords] = useState<AttendanceRecord[]>([]);
   const [isLoading, setIsLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [isLoadingMore, setIsLoadingMore] = useState(false);
 
   // Mock review requests
   const [reviewRequests] = useState<ReviewRequest[]>([
@@ -74,22 +75,27 @@ const AttendanceReview = () => {
     fetchAttendanceData();
   }, [selectedDate, selectedDepartment]);
 
+  const fetchPage = (cursor?: string | null) => apiService.getAttendanceRecords(
+    selectedDate || undefined,
+    selectedDate || undefined,
+    selectedDepartment || undefined,
+    cursor
+  );
+
+  // Add mock attendance percentage for display
+  const withPercentage = (records: AttendanceRecord[]) => records.map(record => ({
+    ...record,
+    attendancePercentage: Math.floor(Math.random() * 40) + 60 // Random percentage between 60-100
+  }));
+
   const fetchAttendanceData = async () => {
     try {
       setIsLoading(true);
-      const response = await apiService.getAttendanceRecords(
-        selectedDate || undefined,
-        selectedDate || undefined,
-        selectedDepartment || undefined
-      );
+      const response = await fetchPage();
       
       if (response.success && response.data) {
-        // Add mock attendance percentage for display
-        const recordsWithPercentage = response.data.map(record => ({
-          ...record,
-          attendancePercentage: Math.floor(Math.random() * 40) + 60 // Random percentage between 60-100
-        }));
-        setAttendanceRecords(recordsWithPercentage);
+        setAttendanceRecords(withPercentage(response.data.records));
+        setNextCursor(response.data.next);
       }
     } catch (error) {
       console.error('Error fetching attendance data:', error);
@@ -99,21 +105,38 @@ const AttendanceReview = () => {
     }
   };
 
-  const handleExportCSV = () => {
-    const csvData = filteredRecords.map(record => ({
-      'Student Name': record.studentName || record.studentId,
-      'Registration Number': record.registrationNumber || 'N/A',
-      'Department': record.department || 'N/A',
-      'Device ID': record.deviceId,
-      'Timestamp': format(new Date(record.timestamp), 'MMM dd, yyyy HH:mm:ss'),
-      'Attendance %': `${record.attendancePercentage || 0}%`,
-      'Status': record.status || 'Present'
-    }));
+  const handleLoadMore = async () => {
+    try {
+      setIsLoadingMore(true);
+      const response = await fetchPage(nextCursor);
+      
+      if (response.success && response.data) {
+        const page = response.data;
+        setAttendanceRecords(records => [...records, ...withPercentage(page.records)]);
+        setNextCursor(page.next);
+      } else {
+        toast.error('Failed to load more attendance records');
+      }
+    } finally {
+      setIsLoadingMore(false);
+    }
+  };
+
+  // The server streams the export for the selected date and department, not just the loaded pages
+  const handleExportCSV = async () => {
+    const response = await apiService.exportAttendanceCsv(
+      selectedDate || undefined,
+      selectedDate || undefined,
+      selectedDepartment || undefined
+    );
+    
+    if (!response.success || !response.data) {
+      toast.error('Failed to export attendance');
+      return;
+    }
 
-    const csv = unparse(csvData);
-    const blob = new Blob([csv], { type: 'text/csv;charset=utf-8;' });
     const link = document.createElement('a');
-    const url = URL.createObjectURL(blob);
+    const url = URL.createObjectURL(response.data);
     
     link.setAttribute('href', url);
     link.setAttribute('download', `attendance_report_${new Date().toISOString().split('T')[0]}.csv`);
@@ -121,6 +144,7 @@ const AttendanceReview = () => {
     document.body.appendChild(link);
     link.click();
     document.body.removeChild(link);
+    URL.revokeObjectURL(url);
   };
 
   const handleManualAttendanceSubmit = async (attendanceData: any) => {
@@ -310,6 +334,18 @@ const AttendanceReview = () => {
                   No attendance records found for the selected criteria.
                 </div>
               )}
+              
+              {nextCursor && (
+                <div className="flex justify-center py-4">
+                  <button
+                    onClick={handleLoadMore}
+                    disabled={isLoadingMore}
+                    className="px-4 py-2 border border-blue-600 text-blue-600 rounded-md hover:bg-gray-50 disabled:opacity-50"
+                  >
+                    {isLoadingMore ? 'Loading...' : 'Load more'}
+                  </button>
+                </div>
+              )}
             </div>
           )}
         </div>
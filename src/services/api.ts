@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { User, DashboardStats, ActivityItem, LeaveRequest, ApiResponse } from '../types';
+import { User, DashboardStats, ActivityItem, LeaveRequest, ApiResponse, AttendancePage } from '../types';
 
 const api = axios.create({
   baseURL: '/api',
@@ -183,18 +183,42 @@ export const getDashboardStats = async (): Promise<ApiResponse<DashboardStats>>
   };
 };
 
+// Attendance listings are keyset-paginated: each call returns one page and the opaque `next`
+// cursor to pass back for the following one (null on the last page)
+const fetchPage = async (path: string, params: URLSearchParams, cursor?: string | null): Promise<AttendancePage> => {
+  if (cursor) params.set('cursor', cursor);
+  const response = await api.get(`${path}?${params.toString()}`);
+  return {
+    records: response.data.data || [],
+    next: response.data.next || null
+  };
+};
+
+// Follows every cursor; only for callers that genuinely need the whole range
+const fetchAllPages = async (path: string, params: URLSearchParams): Promise<any[]> => {
+  const records: any[] = [];
+  let cursor: string | null = null;
+
+  do {
+    const page = await fetchPage(path, params, cursor);
+    records.push(...page.records);
+    cursor = page.next;
+  } while (cursor);
+
+  return records;
+};
+
 // Updated attendance API calls to use MySQL backend
-export const getAttendanceRecords = async (startDate?: string, endDate?: string, department?: string): Promise<ApiResponse<any[]>> => {
+export const getAttendanceRecords = async (startDate?: string, endDate?: string, department?: string, cursor?: string | null): Promise<ApiResponse<AttendancePage>> => {
   try {
     const params = new URLSearchParams();
     if (startDate) params.append('startDate', startDate);
     if (endDate) params.append('endDate', endDate);
     if (department) params.append('department', department);
     
-    const response = await api.get(`/attendance/getAttendance?${params.toString()}`);
     return {
       success: true,
-      data: response.data.data || []
+      data: await fetchPage('/attendance/getAttendance', params, cursor)
     };
   } catch (error) {
     console.error('Error fetching attendance records:', error);
@@ -206,16 +230,57 @@ export const getAttendanceRecords = async (startDate?: string, endDate?: string,
   }
 };
 
-export const getStudentAttendance = async (studentId: string, startDate?: string, endDate?: string): Promise<ApiResponse<any[]>> => {
+// Scan timestamps only, for dashboard counts that need every record in the range
+export const getAttendanceTimestamps = async (startDate?: string, endDate?: string): Promise<ApiResponse<any[]>> => {
+  try {
+    const params = new URLSearchParams({ fields: 'id,timestamp', limit: '1000' });
+    if (startDate) params.append('startDate', startDate);
+    if (endDate) params.append('endDate', endDate);
+    
+    return {
+      success: true,
+      data: await fetchAllPages('/attendance/getAttendance', params)
+    };
+  } catch (error) {
+    console.error('Error fetching attendance timestamps:', error);
+    return {
+      success: false,
+      data: null,
+      message: 'Failed to fetch attendance records'
+    };
+  }
+};
+
+export const getStudentAttendance = async (studentId: string, startDate?: string, endDate?: string, cursor?: string | null): Promise<ApiResponse<AttendancePage>> => {
   try {
     const params = new URLSearchParams();
     if (startDate) params.append('startDate', startDate);
     if (endDate) params.append('endDate', endDate);
     
-    const response = await api.get(`/attendance/student/${studentId}?${params.toString()}`);
     return {
       success: true,
-      data: response.data.data || []
+      data: await fetchPage(`/attendance/student/${studentId}`, params, cursor)
+    };
+  } catch (error) {
+    console.error('Error fetching student attendance:', error);
+    return {
+      success: false,
+      data: null,
+      message: 'Failed to fetch student attendance'
+    };
+  }
+};
+
+// A student's own history in full, for the CSV download of their report
+export const getAllStudentAttendance = async (studentId: string, startDate?: string, endDate?: string): Promise<ApiResponse<any[]>> => {
+  try {
+    const params = new URLSearchParams({ limit: '1000' });
+    if (startDate) params.append('startDate', startDate);
+    if (endDate) params.append('endDate', endDate);
+    
+    return {
+      success: true,
+      data: await fetchAllPages(`/attendance/student/${studentId}`, params)
     };
   } catch (error) {
     console.error('Error fetching student attendance:', error);
@@ -227,6 +292,29 @@ export const getStudentAttendance = async (studentId: string, startDate?: string
   }
 };
 
+// Admin CSV export, streamed and filtered by the server rather than built from loaded pages
+export const exportAttendanceCsv = async (startDate?: string, endDate?: string, department?: string): Promise<ApiResponse<Blob>> => {
+  try {
+    const params = new URLSearchParams();
+    if (startDate) params.append('startDate', startDate);
+    if (endDate) params.append('endDate', endDate);
+    if (department) params.append('department', department);
+    
+    const response = await api.get(`/attendance/export?${params.toString()}`, { responseType: 'blob' });
+    return {
+      success: true,
+      data: response.data
+    };
+  } catch (error) {
+    console.error('Error exporting attendance:', error);
+    return {
+      success: false,
+      data: null,
+      message: 'Failed to export attendance'
+    };
+  }
+};
+
 export const getAttendanceStats = async (studentId: string, startDate?: string, endDate?: string): Promise<ApiResponse<any>> => {
   try {
     const params = new URLSearchParams();
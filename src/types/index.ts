@@ -38,4 +38,9 @@ export interface ApiResponse<T> {
   success: boolean;
   data: T | null;
   message?: string;
+}
+
+export interface AttendancePage {
+  records: any[];
+  next: string | null;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+-- Attendance range-scan indexes
+-- Attendance reads filter on half-open timestamp ranges, usually for one student.
+-- The composite indexes serve those ranges directly and make the single-column
+-- student_id / device_id indexes redundant.
+
+USE mlvisiotrack;
+
+CREATE TABLE IF NOT EXISTS attendance (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    student_id VARCHAR(50) NOT NULL,
+    device_id VARCHAR(50) NOT NULL,
+    timestamp DATETIME DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_student_id (student_id),
+    INDEX idx_device_id (device_id),
+    INDEX idx_timestamp (timestamp)
+);
+
+ALTER TABLE attendance
+    ADD INDEX idx_student_timestamp (student_id, timestamp),
+    ADD INDEX idx_device_timestamp (device_id, timestamp),
+    DROP INDEX idx_student_id,
+    DROP INDEX idx_device_id;
@@ -0,0 +1,19 @@
+-- Daily attendance rollup
+-- One row per student, day and device, maintained incrementally by the backend
+-- whenever scans are written or deleted. Stats and reports read this table so
+-- their cost grows with days rather than raw scans.
+-- After creating it, backfill existing history with com.mlvisiotrack.tools.RollupBackfill.
+
+USE mlvisiotrack;
+
+CREATE TABLE attendance_daily_rollup (
+    student_id VARCHAR(50) NOT NULL,
+    scan_date DATE NOT NULL,
+    device_id VARCHAR(50) NOT NULL,
+    first_scan DATETIME NOT NULL,
+    last_scan DATETIME NOT NULL,
+    scan_count INT NOT NULL DEFAULT 0,
+    
+    PRIMARY KEY (student_id, scan_date, device_id),
+    INDEX idx_scan_date (scan_date)
+);